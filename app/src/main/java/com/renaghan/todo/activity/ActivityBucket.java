@@ -0,0 +1,37 @@
+package com.renaghan.todo.activity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Read model of an {@link ActivityRollup} for the activity actuator endpoint. */
+public class ActivityBucket {
+
+  private final LocalDateTime bucketStart;
+  private final long events;
+  private final long distinctUsers;
+  private final List<TopUri> topUris;
+
+  public ActivityBucket(
+      LocalDateTime bucketStart, long events, long distinctUsers, List<TopUri> topUris) {
+    this.bucketStart = bucketStart;
+    this.events = events;
+    this.distinctUsers = distinctUsers;
+    this.topUris = topUris;
+  }
+
+  public LocalDateTime getBucketStart() {
+    return bucketStart;
+  }
+
+  public long getEvents() {
+    return events;
+  }
+
+  public long getDistinctUsers() {
+    return distinctUsers;
+  }
+
+  public List<TopUri> getTopUris() {
+    return topUris;
+  }
+}
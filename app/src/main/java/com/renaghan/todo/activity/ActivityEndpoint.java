@@ -0,0 +1,33 @@
+package com.renaghan.todo.activity;
+
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/** {@code /mgmt/activity?buckets=24}: the rollups of the newest buckets, newest first. */
+@Component
+@Endpoint(id = "activity")
+@ConditionalOnProperty(
+    value = "custom.activity-rollup.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class ActivityEndpoint {
+
+  private static final int DEFAULT_BUCKETS = 24;
+  private static final int MAX_BUCKETS = 24 * 31;
+
+  private final ActivityRollupService activityRollupService;
+
+  public ActivityEndpoint(ActivityRollupService activityRollupService) {
+    this.activityRollupService = activityRollupService;
+  }
+
+  @ReadOperation
+  public List<ActivityBucket> activity(@Nullable Integer buckets) {
+    int count = buckets == null ? DEFAULT_BUCKETS : Math.max(1, Math.min(buckets, MAX_BUCKETS));
+    return activityRollupService.findRecentBuckets(count);
+  }
+}
@@ -0,0 +1,70 @@
+package com.renaghan.todo.activity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import java.time.LocalDateTime;
+
+/**
+ * Activity of all nodes in one bucket. The sketches are kept so later flushes can merge into
+ * them, distinct users and the top URIs are stored ready to read.
+ */
+@Entity
+public class ActivityRollup {
+
+  @Id private LocalDateTime bucketStart;
+
+  private long events;
+
+  private long distinctUsers;
+
+  private byte[] usersSketch;
+
+  private byte[] urisSketch;
+
+  // JSON list of TopUri, most hit first
+  private String topUris;
+
+  public LocalDateTime getBucketStart() {
+    return bucketStart;
+  }
+
+  public long getEvents() {
+    return events;
+  }
+
+  public void setEvents(long events) {
+    this.events = events;
+  }
+
+  public long getDistinctUsers() {
+    return distinctUsers;
+  }
+
+  public void setDistinctUsers(long distinctUsers) {
+    this.distinctUsers = distinctUsers;
+  }
+
+  public byte[] getUsersSketch() {
+    return usersSketch;
+  }
+
+  public void setUsersSketch(byte[] usersSketch) {
+    this.usersSketch = usersSketch;
+  }
+
+  public byte[] getUrisSketch() {
+    return urisSketch;
+  }
+
+  public void setUrisSketch(byte[] urisSketch) {
+    this.urisSketch = urisSketch;
+  }
+
+  public String getTopUris() {
+    return topUris;
+  }
+
+  public void setTopUris(String topUris) {
+    this.topUris = topUris;
+  }
+}
@@ -0,0 +1,45 @@
+package com.renaghan.todo.activity;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+public interface ActivityRollupRepository extends JpaRepository<ActivityRollup, LocalDateTime> {
+
+  /** Creates an empty rollup for the bucket, unless another node already did. */
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "activity_rollup"))
+  @Query(
+      value =
+          """
+          insert into activity_rollup
+            (bucket_start, events, distinct_users, users_sketch, uris_sketch, top_uris)
+          values (:bucketStart, 0, 0, :usersSketch, :urisSketch, '[]')
+          on conflict do nothing
+          """,
+      nativeQuery = true)
+  int insertIfAbsent(
+      @Param("bucketStart") LocalDateTime bucketStart,
+      @Param("usersSketch") byte[] usersSketch,
+      @Param("urisSketch") byte[] urisSketch);
+
+  // nodes flushing the same bucket merge one after the other
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select r from ActivityRollup r where r.bucketStart = :bucketStart")
+  ActivityRollup findForUpdate(@Param("bucketStart") LocalDateTime bucketStart);
+
+  List<ActivityRollup> findAllByOrderByBucketStartDesc(Limit limit);
+
+  @Modifying
+  @Query("delete from ActivityRollup r where r.bucketStart < :cutoff")
+  int deleteBucketsBefore(@Param("cutoff") LocalDateTime cutoff);
+}
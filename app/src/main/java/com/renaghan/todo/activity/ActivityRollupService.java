@@ -0,0 +1,194 @@
+package com.renaghan.todo.activity;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renaghan.todo.tracing.TracingEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Rolls tracing events up into per-bucket sketches instead of looking at single breadcrumbs:
+ * events, distinct users, hits per URI and the distinct users of the most hit URIs. Every {@code
+ * flush-interval} the node swaps in an empty {@link ActivityWindow} and merges the previous one
+ * into the bucket's {@link ActivityRollup}, which all nodes share. Events are counted in the bucket
+ * that is current at the flush before them, so a bucket may take in up to one flush interval of
+ * the next. A few events racing the swap can be missed, the sketches are estimates anyway.
+ */
+@Service
+@ConditionalOnProperty(
+    value = "custom.activity-rollup.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class ActivityRollupService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ActivityRollupService.class);
+
+  private static final TypeReference<List<TopUri>> TOP_URIS_TYPE = new TypeReference<>() {};
+
+  private final ActivityRollupRepository activityRollupRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final Duration bucket;
+  private final int topUris;
+  private final Duration retention;
+  private final AtomicReference<ActivityWindow> current;
+  private final Timer flushTimer;
+
+  public ActivityRollupService(
+      ActivityRollupRepository activityRollupRepository,
+      TransactionTemplate transactionTemplate,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry,
+      @Value("${custom.activity-rollup.bucket:1h}") Duration bucket,
+      @Value("${custom.activity-rollup.top-uris:20}") int topUris,
+      @Value("${custom.activity-rollup.retention:90d}") Duration retention) {
+    this.activityRollupRepository = activityRollupRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.objectMapper = objectMapper;
+    this.bucket = bucket;
+    this.topUris = topUris;
+    this.retention = retention;
+    this.current = new AtomicReference<>(newWindow());
+
+    this.flushTimer =
+        Timer.builder("stratospheric.activity.flush")
+            .description("Merging this node's activity sketches into the shared rollup")
+            .register(meterRegistry);
+  }
+
+  @EventListener(TracingEvent.class)
+  public void record(TracingEvent tracingEvent) {
+    current
+        .get()
+        .record(
+            tracingEvent.getUri() == null ? "" : tracingEvent.getUri(),
+            tracingEvent.getUsername() == null ? "" : tracingEvent.getUsername());
+  }
+
+  @Scheduled(fixedDelayString = "${custom.activity-rollup.flush-interval:PT1M}")
+  public void flush() {
+    ActivityWindow window = current.getAndSet(newWindow());
+    if (window.getEvents() == 0) {
+      return;
+    }
+    flushTimer.record(
+        () ->
+            transactionTemplate.executeWithoutResult(
+                status -> {
+                  merge(window);
+                  activityRollupRepository.deleteBucketsBefore(
+                      LocalDateTime.now().minus(retention));
+                }));
+  }
+
+  @PreDestroy
+  public void flushOnShutdown() {
+    flush();
+  }
+
+  /** The newest {@code buckets} rollups, newest first. */
+  public List<ActivityBucket> findRecentBuckets(int buckets) {
+    return activityRollupRepository.findAllByOrderByBucketStartDesc(Limit.of(buckets)).stream()
+        .map(
+            rollup ->
+                new ActivityBucket(
+                    rollup.getBucketStart(),
+                    rollup.getEvents(),
+                    rollup.getDistinctUsers(),
+                    readTopUris(rollup).stream()
+                        .map(
+                            topUri ->
+                                new TopUri(
+                                    topUri.getUri(),
+                                    topUri.getEvents(),
+                                    topUri.getDistinctUsers(),
+                                    null))
+                        .toList()))
+        .toList();
+  }
+
+  private void merge(ActivityWindow window) {
+    activityRollupRepository.insertIfAbsent(
+        window.getBucketStart(),
+        new HyperLogLog(ActivityWindow.USERS_PRECISION).toBytes(),
+        new CountMinSketch(ActivityWindow.URIS_DEPTH, ActivityWindow.URIS_WIDTH).toBytes());
+    ActivityRollup rollup = activityRollupRepository.findForUpdate(window.getBucketStart());
+
+    HyperLogLog users = HyperLogLog.fromBytes(rollup.getUsersSketch());
+    users.merge(window.getUsers().toBytes());
+    CountMinSketch uris =
+        CountMinSketch.fromBytes(ActivityWindow.URIS_DEPTH, rollup.getUrisSketch());
+    uris.merge(window.getUris().toBytes());
+
+    // the stored top list and this node's compete, ranked by the merged hit counts
+    Map<String, HyperLogLog> candidates = new LinkedHashMap<>();
+    for (TopUri stored : readTopUris(rollup)) {
+      candidates.put(stored.getUri(), HyperLogLog.fromBytes(stored.getUsersSketch()));
+    }
+    window
+        .getTopUriUsers()
+        .forEach(
+            (uri, uriUsers) ->
+                candidates
+                    .computeIfAbsent(
+                        uri, ignored -> new HyperLogLog(ActivityWindow.URI_USERS_PRECISION))
+                    .merge(uriUsers.toBytes()));
+    List<TopUri> top =
+        candidates.entrySet().stream()
+            .map(
+                candidate ->
+                    new TopUri(
+                        candidate.getKey(),
+                        uris.estimate(Hashing.hash(candidate.getKey())),
+                        candidate.getValue().estimate(),
+                        candidate.getValue().toBytes()))
+            .sorted(Comparator.comparingLong(TopUri::getEvents).reversed())
+            .limit(topUris)
+            .toList();
+
+    rollup.setEvents(rollup.getEvents() + window.getEvents());
+    rollup.setDistinctUsers(users.estimate());
+    rollup.setUsersSketch(users.toBytes());
+    rollup.setUrisSketch(uris.toBytes());
+    try {
+      rollup.setTopUris(objectMapper.writeValueAsString(top));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize top URIs", e);
+    }
+  }
+
+  private List<TopUri> readTopUris(ActivityRollup rollup) {
+    try {
+      return objectMapper.readValue(rollup.getTopUris(), TOP_URIS_TYPE);
+    } catch (JsonProcessingException e) {
+      LOG.warn("Ignoring unreadable top URIs of bucket {}", rollup.getBucketStart(), e);
+      return List.of();
+    }
+  }
+
+  // buckets are aligned to the epoch, an hourly bucket starts at the full hour
+  private ActivityWindow newWindow() {
+    long now = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+    long start = now - Math.floorMod(now, bucket.getSeconds());
+    return new ActivityWindow(LocalDateTime.ofEpochSecond(start, 0, ZoneOffset.UTC), topUris);
+  }
+}
@@ -0,0 +1,109 @@
+package com.renaghan.todo.activity;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sketches of the tracing events a node saw in one bucket since its last flush: all events, the
+ * distinct users, how often each URI was hit and the distinct users of the {@code topUris} most
+ * hit URIs. A URI only gets its users sketch once it makes the top list, users who hit it before
+ * are not counted for it. The memory does not depend on the traffic.
+ */
+final class ActivityWindow {
+
+  static final int USERS_PRECISION = 12;
+  static final int URI_USERS_PRECISION = 10;
+  static final int URIS_DEPTH = 4;
+  static final int URIS_WIDTH = 2048;
+
+  private final LocalDateTime bucketStart;
+  private final int topUris;
+  private final LongAdder events = new LongAdder();
+  private final HyperLogLog users = new HyperLogLog(USERS_PRECISION);
+  private final CountMinSketch uris = new CountMinSketch(URIS_DEPTH, URIS_WIDTH);
+  private final Map<String, HyperLogLog> topUriUsers = new ConcurrentHashMap<>();
+
+  // smallest estimate in the top list while it is full, a URI has to beat it to get in
+  private volatile long admissionEstimate;
+
+  ActivityWindow(LocalDateTime bucketStart, int topUris) {
+    this.bucketStart = bucketStart;
+    this.topUris = topUris;
+  }
+
+  void record(String uri, String username) {
+    long uriHash = Hashing.hash(uri);
+    long userHash = Hashing.hash(username);
+    events.increment();
+    users.add(userHash);
+    uris.add(uriHash);
+
+    HyperLogLog uriUsers = topUriUsers.get(uri);
+    if (uriUsers == null) {
+      long estimate = uris.estimate(uriHash);
+      if (estimate <= admissionEstimate) {
+        return;
+      }
+      uriUsers = admit(uri, estimate);
+      if (uriUsers == null) {
+        return;
+      }
+    }
+    uriUsers.add(userHash);
+  }
+
+  LocalDateTime getBucketStart() {
+    return bucketStart;
+  }
+
+  long getEvents() {
+    return events.sum();
+  }
+
+  HyperLogLog getUsers() {
+    return users;
+  }
+
+  CountMinSketch getUris() {
+    return uris;
+  }
+
+  Map<String, HyperLogLog> getTopUriUsers() {
+    return topUriUsers;
+  }
+
+  private synchronized HyperLogLog admit(String uri, long estimate) {
+    HyperLogLog uriUsers = topUriUsers.get(uri);
+    if (uriUsers != null) {
+      return uriUsers;
+    }
+    if (topUriUsers.size() >= topUris) {
+      String evicted = null;
+      long evictedEstimate = Long.MAX_VALUE;
+      for (String candidate : topUriUsers.keySet()) {
+        long candidateEstimate = uris.estimate(Hashing.hash(candidate));
+        if (candidateEstimate < evictedEstimate) {
+          evicted = candidate;
+          evictedEstimate = candidateEstimate;
+        }
+      }
+      if (evictedEstimate >= estimate) {
+        admissionEstimate = evictedEstimate;
+        return null;
+      }
+      topUriUsers.remove(evicted);
+    }
+    uriUsers = new HyperLogLog(URI_USERS_PRECISION);
+    topUriUsers.put(uri, uriUsers);
+    if (topUriUsers.size() >= topUris) {
+      admissionEstimate =
+          topUriUsers.keySet().stream()
+              .mapToLong(candidate -> uris.estimate(Hashing.hash(candidate)))
+              .min()
+              .orElse(0);
+    }
+    return uriUsers;
+  }
+}
@@ -0,0 +1,72 @@
+package com.renaghan.todo.activity;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Frequency estimate in {@code depth} rows of {@code width} counters. An estimate never undercounts
+ * and overcounts by at most {@code e / width} of all additions with probability {@code 1 -
+ * e^-depth}. Sketches of the same shape merge by adding their counters.
+ */
+final class CountMinSketch {
+
+  private final int depth;
+  private final int width;
+  private final AtomicLongArray counters;
+
+  CountMinSketch(int depth, int width) {
+    if (Integer.bitCount(width) != 1) {
+      throw new IllegalArgumentException("Width must be a power of two: " + width);
+    }
+    this.depth = depth;
+    this.width = width;
+    this.counters = new AtomicLongArray(depth * width);
+  }
+
+  static CountMinSketch fromBytes(int depth, byte[] bytes) {
+    CountMinSketch sketch = new CountMinSketch(depth, bytes.length / Long.BYTES / depth);
+    sketch.merge(bytes);
+    return sketch;
+  }
+
+  void add(long hash) {
+    for (int row = 0; row < depth; row++) {
+      counters.incrementAndGet(row * width + column(hash, row));
+    }
+  }
+
+  long estimate(long hash) {
+    long estimate = Long.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      estimate = Math.min(estimate, counters.get(row * width + column(hash, row)));
+    }
+    return estimate;
+  }
+
+  /** Counters of a sketch with the same shape, as written by {@link #toBytes()}. */
+  void merge(byte[] other) {
+    if (other.length != counters.length() * Long.BYTES) {
+      throw new IllegalArgumentException(
+          "Cannot merge " + other.length + " bytes into " + counters.length() + " counters");
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(other);
+    for (int i = 0; i < counters.length(); i++) {
+      counters.addAndGet(i, buffer.getLong());
+    }
+  }
+
+  byte[] toBytes() {
+    ByteBuffer buffer = ByteBuffer.allocate(counters.length() * Long.BYTES);
+    for (int i = 0; i < counters.length(); i++) {
+      buffer.putLong(counters.get(i));
+    }
+    return buffer.array();
+  }
+
+  // one hash yields every row's column (Kirsch-Mitzenmacher double hashing)
+  private int column(long hash, int row) {
+    int first = (int) hash;
+    int second = (int) (hash >>> 32);
+    return (first + row * second) & (width - 1);
+  }
+}
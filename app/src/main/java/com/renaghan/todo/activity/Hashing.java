@@ -0,0 +1,21 @@
+package com.renaghan.todo.activity;
+
+final class Hashing {
+
+  private Hashing() {}
+
+  /** 64-bit FNV-1a over the chars, finished with MurmurHash3's fmix64 to spread the low bits. */
+  static long hash(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      hash ^= value.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
@@ -0,0 +1,86 @@
+package com.renaghan.todo.activity;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Distinct count estimate in {@code 2^precision} registers, with a standard error of about {@code
+ * 1.04 / sqrt(2^precision)}. Adding is lock-free; sketches of the same precision merge by taking
+ * the larger register, so merging the same sketch twice does not change the estimate.
+ */
+final class HyperLogLog {
+
+  private final int precision;
+  private final AtomicIntegerArray registers;
+
+  HyperLogLog(int precision) {
+    if (precision < 4 || precision > 18) {
+      throw new IllegalArgumentException("Precision must be between 4 and 18: " + precision);
+    }
+    this.precision = precision;
+    this.registers = new AtomicIntegerArray(1 << precision);
+  }
+
+  static HyperLogLog fromBytes(byte[] bytes) {
+    HyperLogLog sketch = new HyperLogLog(Integer.numberOfTrailingZeros(bytes.length));
+    sketch.merge(bytes);
+    return sketch;
+  }
+
+  void add(long hash) {
+    int index = (int) (hash >>> (64 - precision));
+    // the marker bit caps the rank where the hash bits run out
+    int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+    int current;
+    while ((current = registers.get(index)) < rank) {
+      if (registers.compareAndSet(index, current, rank)) {
+        return;
+      }
+    }
+  }
+
+  long estimate() {
+    int m = registers.length();
+    double sum = 0;
+    int zeros = 0;
+    for (int i = 0; i < m; i++) {
+      int rank = registers.get(i);
+      sum += Math.scalb(1.0, -rank);
+      if (rank == 0) {
+        zeros++;
+      }
+    }
+    double alpha = 0.7213 / (1 + 1.079 / m);
+    double estimate = alpha * m * m / sum;
+    // linear counting is more accurate while many registers are still empty
+    if (estimate <= 2.5 * m && zeros > 0) {
+      estimate = m * Math.log((double) m / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  /** Registers of a sketch with the same precision, as written by {@link #toBytes()}. */
+  void merge(byte[] other) {
+    if (other.length != registers.length()) {
+      throw new IllegalArgumentException(
+          "Cannot merge " + other.length + " registers into " + registers.length());
+    }
+    for (int i = 0; i < other.length; i++) {
+      int rank = other[i];
+      int current;
+      while ((current = registers.get(i)) < rank) {
+        if (registers.compareAndSet(i, current, rank)) {
+          break;
+        }
+      }
+    }
+  }
+
+  /** One byte per register, ranks never exceed 64. */
+  byte[] toBytes() {
+    byte[] bytes = new byte[registers.length()];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) registers.get(i);
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,54 @@
+package com.renaghan.todo.activity;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/** A most hit URI of a bucket, with its sketch of distinct users while it is stored. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TopUri {
+
+  private String uri;
+  private long events;
+  private long distinctUsers;
+  private byte[] usersSketch;
+
+  public TopUri() {}
+
+  public TopUri(String uri, long events, long distinctUsers, byte[] usersSketch) {
+    this.uri = uri;
+    this.events = events;
+    this.distinctUsers = distinctUsers;
+    this.usersSketch = usersSketch;
+  }
+
+  public String getUri() {
+    return uri;
+  }
+
+  public void setUri(String uri) {
+    this.uri = uri;
+  }
+
+  public long getEvents() {
+    return events;
+  }
+
+  public void setEvents(long events) {
+    this.events = events;
+  }
+
+  public long getDistinctUsers() {
+    return distinctUsers;
+  }
+
+  public void setDistinctUsers(long distinctUsers) {
+    this.distinctUsers = distinctUsers;
+  }
+
+  public byte[] getUsersSketch() {
+    return usersSketch;
+  }
+
+  public void setUsersSketch(byte[] usersSketch) {
+    this.usersSketch = usersSketch;
+  }
+}
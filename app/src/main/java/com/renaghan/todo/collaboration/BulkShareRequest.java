@@ -0,0 +1,34 @@
+package com.renaghan.todo.collaboration;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkShareRequest {
+
+  @NotEmpty
+  @Size(max = 50)
+  private List<@NotNull Long> todoIds = new ArrayList<>();
+
+  @NotEmpty
+  @Size(max = 50)
+  private List<@NotNull Long> collaboratorIds = new ArrayList<>();
+
+  public List<Long> getTodoIds() {
+    return todoIds;
+  }
+
+  public void setTodoIds(List<Long> todoIds) {
+    this.todoIds = todoIds;
+  }
+
+  public List<Long> getCollaboratorIds() {
+    return collaboratorIds;
+  }
+
+  public void setCollaboratorIds(List<Long> collaboratorIds) {
+    this.collaboratorIds = collaboratorIds;
+  }
+}
@@ -0,0 +1,22 @@
+package com.renaghan.todo.collaboration;
+
+import java.util.List;
+
+public class BulkShareResult {
+
+  private final int shared;
+  private final List<SharingOutcome> outcomes;
+
+  public BulkShareResult(int shared, List<SharingOutcome> outcomes) {
+    this.shared = shared;
+    this.outcomes = outcomes;
+  }
+
+  public int getShared() {
+    return shared;
+  }
+
+  public List<SharingOutcome> getOutcomes() {
+    return outcomes;
+  }
+}
@@ -0,0 +1,388 @@
+package com.renaghan.todo.collaboration;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renaghan.todo.mail.EmailDeliveryService;
+import com.renaghan.todo.mail.EmailTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Collects sharing notifications per recipient and sends them as one email once the oldest is
+ * {@code window} old or {@code max-size} have piled up. Every notification is also written to
+ * SHARING_DIGEST_ENTRY before its SQS message is acknowledged and deleted once its digest was
+ * sent. A node renews the heartbeat of every entry it holds, whether pending, being sent or
+ * waiting for a retry. Entries without a heartbeat for twice the window were left behind by a
+ * node that went away and are adopted by another node. A digest that failed is retried with
+ * exponential backoff from {@code retry-delay}, after {@code max-attempts} its entries are moved
+ * to SHARING_DIGEST_DEAD_LETTER.
+ */
+@Component
+@ConditionalOnProperty(value = "custom.sharing-digest.enabled", havingValue = "true")
+public class SharingDigest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SharingDigest.class);
+
+  // only one node adopts orphaned entries at a time
+  private static final long ADOPTION_LOCK_KEY = 0x6469676573744cL;
+
+  private static final int ADOPTION_BATCH_SIZE = 1_000;
+
+  private static final int HEARTBEAT_BATCH_SIZE = 1_000;
+
+  private static final EmailTemplate DIGEST_EMAIL =
+      EmailTemplate.compile(
+          """
+    Hi {collaboratorEmail},\s
+
+    {count} Todos from {externalUrl} were shared with you.\s
+
+    {todos}Kind regards,\s
+    Renaghan todo-app""");
+
+  private static final EmailTemplate DIGEST_TODO =
+      EmailTemplate.compile(
+          """
+    Title: {todoTitle}\s
+    Description: {todoDescription}\s
+    Priority: {todoPriority}\s
+    Accept: {externalUrl}/todo/{todoId}/collaborations/{collaboratorId}/confirm?token={token}\s
+
+    """);
+
+  private final SharingDigestEntryRepository sharingDigestEntryRepository;
+  private final SharingDigestDeadLetterRepository sharingDigestDeadLetterRepository;
+  private final EmailDeliveryService emailDeliveryService;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+  private final TaskScheduler taskScheduler;
+  private final String confirmEmailFromAddress;
+  private final String externalUrl;
+  private final Duration window;
+  private final int maxSize;
+  private final int maxAttempts;
+  private final Duration retryDelay;
+  private final Counter digestsSent;
+  private final Counter notificationsDigested;
+  private final Counter deadLettered;
+
+  private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+  // entries of this node until their digest was sent, including those in flight or failed
+  private final Set<Long> heldEntryIds = ConcurrentHashMap.newKeySet();
+
+  public SharingDigest(
+      SharingDigestEntryRepository sharingDigestEntryRepository,
+      SharingDigestDeadLetterRepository sharingDigestDeadLetterRepository,
+      EmailDeliveryService emailDeliveryService,
+      ObjectMapper objectMapper,
+      TransactionTemplate transactionTemplate,
+      TaskScheduler taskScheduler,
+      MeterRegistry meterRegistry,
+      @Value("${custom.confirm-email-from-address}") String confirmEmailFromAddress,
+      @Value("${custom.external-url}") String externalUrl,
+      @Value("${custom.sharing-digest.window:5m}") Duration window,
+      @Value("${custom.sharing-digest.max-size:20}") int maxSize,
+      @Value("${custom.sharing-digest.max-attempts:5}") int maxAttempts,
+      @Value("${custom.sharing-digest.retry-delay:PT30S}") Duration retryDelay) {
+    this.sharingDigestEntryRepository = sharingDigestEntryRepository;
+    this.sharingDigestDeadLetterRepository = sharingDigestDeadLetterRepository;
+    this.emailDeliveryService = emailDeliveryService;
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = transactionTemplate;
+    this.taskScheduler = taskScheduler;
+    this.confirmEmailFromAddress = confirmEmailFromAddress;
+    this.externalUrl = externalUrl;
+    this.window = window;
+    this.maxSize = maxSize;
+    this.maxAttempts = maxAttempts;
+    this.retryDelay = retryDelay;
+
+    this.digestsSent =
+        Counter.builder("stratospheric.sharing.digest.sent")
+            .description("Digest emails sent")
+            .register(meterRegistry);
+    this.notificationsDigested =
+        Counter.builder("stratospheric.sharing.digest.notifications")
+            .description("Sharing notifications delivered as part of a digest")
+            .register(meterRegistry);
+    this.deadLettered =
+        Counter.builder("stratospheric.sharing.digest.dead.lettered")
+            .description("Sharing notifications moved to SHARING_DIGEST_DEAD_LETTER")
+            .register(meterRegistry);
+    Gauge.builder("stratospheric.sharing.digest.pending", pending, SharingDigest::countPending)
+        .description("Sharing notifications waiting for their digest")
+        .register(meterRegistry);
+  }
+
+  /** Returns once the notification is stored durably, its message can be acknowledged then. */
+  public void add(TodoCollaborationNotification payload) {
+    SharingDigestEntry entry =
+        sharingDigestEntryRepository.save(
+            new SharingDigestEntry(payload.getCollaboratorEmail(), toJson(payload)));
+    heldEntryIds.add(entry.getId());
+
+    Pending recipientDigest =
+        pending.compute(
+            payload.getCollaboratorEmail(),
+            (email, current) -> {
+              Pending digest = current == null ? new Pending() : current;
+              digest.add(entry.getId(), payload);
+              return digest;
+            });
+
+    // a digest waiting for its retry is not sent early
+    if (recipientDigest.size() >= maxSize && !recipientDigest.isBackingOff(Instant.now())) {
+      taskScheduler.schedule(() -> flush(payload.getCollaboratorEmail()), Instant.now());
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${custom.sharing-digest.flush-interval:PT10S}")
+  public void flushExpired() {
+    Instant now = Instant.now();
+    Instant cutoff = now.minus(window);
+    pending.forEach(
+        (email, digest) -> {
+          if (digest.isDue(cutoff, now)) {
+            flush(email);
+          }
+        });
+
+    renewHeartbeats();
+    adoptOrphanedEntries();
+  }
+
+  private void flush(String email) {
+    Pending digest = pending.remove(email);
+    if (digest == null) {
+      return;
+    }
+
+    StringBuilder todos = new StringBuilder();
+    for (TodoCollaborationNotification payload : digest.payloads()) {
+      Map<String, Object> values = new HashMap<>();
+      values.put("todoTitle", payload.getTodoTitle());
+      values.put("todoDescription", payload.getTodoDescription());
+      values.put("todoPriority", payload.getTodoPriority());
+      values.put("externalUrl", externalUrl);
+      values.put("todoId", payload.getTodoId());
+      values.put("collaboratorId", payload.getCollaboratorId());
+      values.put("token", payload.getToken());
+      todos.append(DIGEST_TODO.render(values));
+    }
+
+    Map<String, Object> values = new HashMap<>();
+    values.put("collaboratorEmail", email);
+    values.put("count", digest.size());
+    values.put("externalUrl", externalUrl);
+    values.put("todos", todos);
+
+    SimpleMailMessage message = new SimpleMailMessage();
+    message.setFrom(confirmEmailFromAddress);
+    message.setTo(email);
+    message.setSubject(digest.size() + " todos were shared with you");
+    message.setText(DIGEST_EMAIL.render(values));
+
+    emailDeliveryService
+        .send(message)
+        .whenComplete(
+            (ignored, e) -> {
+              if (e == null) {
+                sharingDigestEntryRepository.deleteAllByIdInBatch(digest.entryIds());
+                heldEntryIds.removeAll(digest.entryIds());
+                digestsSent.increment();
+                notificationsDigested.increment(digest.size());
+              } else {
+                retryOrDeadLetter(email, digest, e);
+              }
+            });
+  }
+
+  private void retryOrDeadLetter(String email, Pending digest, Throwable e) {
+    int attempts = digest.fail(retryDelay);
+    if (attempts >= maxAttempts) {
+      deadLetter(email, digest, attempts, e);
+      return;
+    }
+    // back into the pending digest for this recipient, notifications added meanwhile wait for its
+    // retry; the entries stay held, so no other node adopts them meanwhile
+    LOG.warn("Could not send sharing digest to {} on attempt {}", email, attempts, e);
+    pending.merge(email, digest, (current, failed) -> failed.addAll(current));
+  }
+
+  // the dead letters leave SHARING_DIGEST_ENTRY in the same transaction
+  private void deadLetter(String email, Pending digest, int attempts, Throwable e) {
+    List<Long> entryIds = digest.entryIds();
+    try {
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            sharingDigestDeadLetterRepository.saveAll(
+                sharingDigestEntryRepository.findAllById(entryIds).stream()
+                    .map(entry -> new SharingDigestDeadLetter(entry, attempts, e))
+                    .toList());
+            sharingDigestEntryRepository.deleteAllByIdInBatch(entryIds);
+          });
+    } catch (RuntimeException deadLetterFailure) {
+      // sent once more after the backoff, then moved again if that fails too
+      LOG.error(
+          "Could not move the sharing digest for {} to the dead letters", email, deadLetterFailure);
+      pending.merge(email, digest, (current, failed) -> failed.addAll(current));
+      return;
+    }
+
+    heldEntryIds.removeAll(entryIds);
+    deadLettered.increment(entryIds.size());
+    LOG.error(
+        "Moved {} sharing notifications for {} to the dead letters after {} attempts",
+        entryIds.size(),
+        email,
+        attempts,
+        e);
+  }
+
+  private void renewHeartbeats() {
+    List<Long> held = List.copyOf(heldEntryIds);
+    LocalDateTime now = LocalDateTime.now();
+    try {
+      for (int from = 0; from < held.size(); from += HEARTBEAT_BATCH_SIZE) {
+        List<Long> batch = held.subList(from, Math.min(from + HEARTBEAT_BATCH_SIZE, held.size()));
+        transactionTemplate.executeWithoutResult(
+            status -> sharingDigestEntryRepository.renewHeartbeat(batch, now));
+      }
+    } catch (RuntimeException e) {
+      // retried on the next flush, the entries are only adopted after twice the window
+      LOG.warn("Could not renew heartbeat of {} sharing digest entries", held.size(), e);
+    }
+  }
+
+  private void adoptOrphanedEntries() {
+    LocalDateTime cutoff = LocalDateTime.now().minus(window.multipliedBy(2));
+    Set<Long> ownEntryIds = Set.copyOf(heldEntryIds);
+
+    List<SharingDigestEntry> adopted =
+        transactionTemplate.execute(
+            status -> {
+              if (!sharingDigestEntryRepository.tryAdvisoryLock(ADOPTION_LOCK_KEY)) {
+                return List.of();
+              }
+              List<SharingDigestEntry> orphans =
+                  sharingDigestEntryRepository
+                      .findAllByHeartbeatAtBeforeOrderById(cutoff, Limit.of(ADOPTION_BATCH_SIZE))
+                      .stream()
+                      .filter(entry -> !ownEntryIds.contains(entry.getId()))
+                      .toList();
+              // no longer orphaned for other nodes, the dirty entries are flushed at commit
+              orphans.forEach(entry -> entry.setHeartbeatAt(LocalDateTime.now()));
+              return orphans;
+            });
+
+    for (SharingDigestEntry entry : adopted) {
+      TodoCollaborationNotification payload = fromJson(entry.getPayload());
+      if (payload == null) {
+        sharingDigestEntryRepository.deleteById(entry.getId());
+        continue;
+      }
+      heldEntryIds.add(entry.getId());
+      pending.compute(
+          entry.getCollaboratorEmail(),
+          (email, current) -> {
+            Pending digest = current == null ? new Pending() : current;
+            digest.add(entry.getId(), payload);
+            return digest;
+          });
+    }
+
+    if (!adopted.isEmpty()) {
+      LOG.info("Adopted {} orphaned sharing digest entries", adopted.size());
+    }
+  }
+
+  private String toJson(TodoCollaborationNotification payload) {
+    try {
+      return objectMapper.writeValueAsString(payload);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Could not serialize sharing notification", e);
+    }
+  }
+
+  private TodoCollaborationNotification fromJson(String json) {
+    try {
+      return objectMapper.readValue(json, TodoCollaborationNotification.class);
+    } catch (JsonProcessingException e) {
+      LOG.error("Dropping unreadable sharing digest entry", e);
+      return null;
+    }
+  }
+
+  private static double countPending(Map<String, Pending> pending) {
+    return pending.values().stream().mapToInt(Pending::size).sum();
+  }
+
+  private static class Pending {
+
+    private final Instant since = Instant.now();
+    private final List<Long> entryIds = new ArrayList<>();
+    private final List<TodoCollaborationNotification> payloads = new ArrayList<>();
+    private int attempts;
+    private Instant retryAt;
+
+    synchronized void add(Long entryId, TodoCollaborationNotification payload) {
+      entryIds.add(entryId);
+      payloads.add(payload);
+    }
+
+    synchronized Pending addAll(Pending other) {
+      entryIds.addAll(other.entryIds());
+      payloads.addAll(other.payloads());
+      return this;
+    }
+
+    // a new digest is due once its window is over, a failed one once its backoff is
+    synchronized boolean isDue(Instant cutoff, Instant now) {
+      return retryAt == null ? since.isBefore(cutoff) : !now.isBefore(retryAt);
+    }
+
+    synchronized boolean isBackingOff(Instant now) {
+      return retryAt != null && now.isBefore(retryAt);
+    }
+
+    /** Returns the number of failed attempts, the next one waits twice as long as the last. */
+    synchronized int fail(Duration retryDelay) {
+      attempts++;
+      retryAt = Instant.now().plus(retryDelay.multipliedBy(1L << Math.min(attempts - 1, 16)));
+      return attempts;
+    }
+
+    synchronized int size() {
+      return payloads.size();
+    }
+
+    synchronized List<Long> entryIds() {
+      return List.copyOf(entryIds);
+    }
+
+    synchronized List<TodoCollaborationNotification> payloads() {
+      return List.copyOf(payloads);
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.renaghan.todo.collaboration;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import java.time.LocalDateTime;
+
+/** A sharing digest entry whose digest could not be sent, with the last error. */
+@Entity
+public class SharingDigestDeadLetter {
+
+  // the id the entry had in SHARING_DIGEST_ENTRY
+  @Id private Long id;
+
+  private String collaboratorEmail;
+
+  private String payload;
+
+  private LocalDateTime createdAt;
+
+  private LocalDateTime failedAt;
+
+  private int attempts;
+
+  private String error;
+
+  protected SharingDigestDeadLetter() {}
+
+  public SharingDigestDeadLetter(SharingDigestEntry entry, int attempts, Throwable error) {
+    this.id = entry.getId();
+    this.collaboratorEmail = entry.getCollaboratorEmail();
+    this.payload = entry.getPayload();
+    this.createdAt = entry.getCreatedAt();
+    this.failedAt = LocalDateTime.now();
+    this.attempts = attempts;
+    this.error = error.toString();
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getCollaboratorEmail() {
+    return collaboratorEmail;
+  }
+
+  public String getPayload() {
+    return payload;
+  }
+
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public LocalDateTime getFailedAt() {
+    return failedAt;
+  }
+
+  public int getAttempts() {
+    return attempts;
+  }
+
+  public String getError() {
+    return error;
+  }
+}
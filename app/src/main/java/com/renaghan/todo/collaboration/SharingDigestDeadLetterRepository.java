@@ -0,0 +1,6 @@
+package com.renaghan.todo.collaboration;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface SharingDigestDeadLetterRepository
+    extends JpaRepository<SharingDigestDeadLetter, Long> {}
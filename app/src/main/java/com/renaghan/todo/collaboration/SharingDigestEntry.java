@@ -0,0 +1,61 @@
+package com.renaghan.todo.collaboration;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import java.time.LocalDateTime;
+
+@Entity
+public class SharingDigestEntry {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sharing_digest_entry_seq")
+  @SequenceGenerator(
+      name = "sharing_digest_entry_seq",
+      sequenceName = "sharing_digest_entry_seq",
+      allocationSize = 50)
+  private Long id;
+
+  private String collaboratorEmail;
+
+  private String payload;
+
+  private LocalDateTime createdAt;
+
+  private LocalDateTime heartbeatAt;
+
+  protected SharingDigestEntry() {}
+
+  public SharingDigestEntry(String collaboratorEmail, String payload) {
+    this.collaboratorEmail = collaboratorEmail;
+    this.payload = payload;
+    this.createdAt = LocalDateTime.now();
+    this.heartbeatAt = createdAt;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getCollaboratorEmail() {
+    return collaboratorEmail;
+  }
+
+  public String getPayload() {
+    return payload;
+  }
+
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public LocalDateTime getHeartbeatAt() {
+    return heartbeatAt;
+  }
+
+  public void setHeartbeatAt(LocalDateTime heartbeatAt) {
+    this.heartbeatAt = heartbeatAt;
+  }
+}
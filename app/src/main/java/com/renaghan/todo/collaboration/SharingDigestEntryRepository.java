@@ -0,0 +1,23 @@
+package com.renaghan.todo.collaboration;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface SharingDigestEntryRepository extends JpaRepository<SharingDigestEntry, Long> {
+
+  List<SharingDigestEntry> findAllByHeartbeatAtBeforeOrderById(LocalDateTime cutoff, Limit limit);
+
+  @Modifying
+  @Query("update SharingDigestEntry e set e.heartbeatAt = :now where e.id in :ids")
+  int renewHeartbeat(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+  /** Transaction scoped, released at commit or rollback. */
+  @Query(value = "select pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+  boolean tryAdvisoryLock(@Param("key") long key);
+}
@@ -0,0 +1,24 @@
+package com.renaghan.todo.collaboration;
+
+/**
+ * Versions of the sharing queue payload, sent in the {@value #SCHEMA_VERSION_HEADER} message
+ * attribute. Both versions are JSON of {@link TodoCollaborationNotification}; the compact one only
+ * carries ids and is enriched from the collaboration request when it is received.
+ */
+public final class SharingMessageFormat {
+
+  public static final String SCHEMA_VERSION_HEADER = "SchemaVersion";
+
+  /** Every field of the notification, the only format before the attribute existed. */
+  public static final int FULL = 1;
+
+  /** Notification, todo and collaborator id only. */
+  public static final int COMPACT = 2;
+
+  private SharingMessageFormat() {}
+
+  // messages without the attribute were sent before it existed and are full
+  public static boolean isCompact(String schemaVersion) {
+    return String.valueOf(COMPACT).equals(schemaVersion);
+  }
+}
@@ -0,0 +1,35 @@
+package com.renaghan.todo.collaboration;
+
+public class SharingOutcome {
+
+  public enum Status {
+    SHARED,
+    ALREADY_REQUESTED,
+    ALREADY_COLLABORATOR,
+    OWNER,
+    TODO_NOT_FOUND,
+    COLLABORATOR_NOT_FOUND
+  }
+
+  private final Long todoId;
+  private final Long collaboratorId;
+  private final Status status;
+
+  public SharingOutcome(Long todoId, Long collaboratorId, Status status) {
+    this.todoId = todoId;
+    this.collaboratorId = collaboratorId;
+    this.status = status;
+  }
+
+  public Long getTodoId() {
+    return todoId;
+  }
+
+  public Long getCollaboratorId() {
+    return collaboratorId;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+}
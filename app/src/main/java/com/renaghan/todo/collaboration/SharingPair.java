@@ -0,0 +1,39 @@
+package com.renaghan.todo.collaboration;
+
+import java.util.Objects;
+
+public class SharingPair {
+
+  private final Long todoId;
+  private final Long collaboratorId;
+
+  public SharingPair(Long todoId, Long collaboratorId) {
+    this.todoId = todoId;
+    this.collaboratorId = collaboratorId;
+  }
+
+  public Long getTodoId() {
+    return todoId;
+  }
+
+  public Long getCollaboratorId() {
+    return collaboratorId;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof SharingPair that)) {
+      return false;
+    }
+    return Objects.equals(todoId, that.todoId)
+        && Objects.equals(collaboratorId, that.collaboratorId);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(todoId, collaboratorId);
+  }
+}
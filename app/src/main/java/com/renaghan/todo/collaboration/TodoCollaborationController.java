@@ -1,6 +1,8 @@
 package com.renaghan.todo.collaboration;
 
 import io.micrometer.core.annotation.Timed;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.stereotype.Controller;
@@ -40,6 +42,18 @@ public class TodoCollaborationController {
     return "redirect:/dashboard";
   }
 
+  @Timed(
+      value = "stratospheric.collaboration.bulk-sharing",
+      description = "Measure the time how long it takes to share todos with many collaborators")
+  @PostMapping(value = "/collaborations", consumes = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseBody
+  public BulkShareResult shareTodosWithCollaborators(
+      @Valid @RequestBody BulkShareRequest bulkShareRequest,
+      @AuthenticationPrincipal OidcUser user) {
+    return todoCollaborationService.shareWithCollaborators(
+        user.getEmail(), bulkShareRequest.getTodoIds(), bulkShareRequest.getCollaboratorIds());
+  }
+
   @GetMapping("/{todoId}/collaborations/{collaboratorId}/confirm")
   public String confirmCollaboration(
       @PathVariable("todoId") Long todoId,
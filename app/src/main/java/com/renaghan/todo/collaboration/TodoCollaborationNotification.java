@@ -1,9 +1,15 @@
 package com.renaghan.todo.collaboration;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.renaghan.todo.todo.Priority;
+import java.util.UUID;
 
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class TodoCollaborationNotification {
 
+  // stays the same across redeliveries, identifies duplicates of this notification
+  private String notificationId;
+
   private String collaboratorEmail;
   private String collaboratorName;
   private Long collaboratorId;
@@ -18,6 +24,13 @@ public class TodoCollaborationNotification {
   public TodoCollaborationNotification() {}
 
   public TodoCollaborationNotification(TodoCollaborationRequest todoCollaborationRequest) {
+    this(todoCollaborationRequest, UUID.randomUUID().toString());
+  }
+
+  /** Keeps the id of the compact notification this one is enriched from. */
+  public TodoCollaborationNotification(
+      TodoCollaborationRequest todoCollaborationRequest, String notificationId) {
+    this.notificationId = notificationId;
     this.collaboratorEmail = todoCollaborationRequest.getCollaborator().getEmail();
     this.collaboratorName = todoCollaborationRequest.getCollaborator().getName();
     this.collaboratorId = todoCollaborationRequest.getCollaborator().getId();
@@ -28,6 +41,24 @@ public class TodoCollaborationNotification {
     this.token = todoCollaborationRequest.getToken();
   }
 
+  /** See {@link SharingMessageFormat#COMPACT}. */
+  public static TodoCollaborationNotification compact(
+      TodoCollaborationRequest todoCollaborationRequest) {
+    TodoCollaborationNotification notification = new TodoCollaborationNotification();
+    notification.notificationId = UUID.randomUUID().toString();
+    notification.todoId = todoCollaborationRequest.getTodo().getId();
+    notification.collaboratorId = todoCollaborationRequest.getCollaborator().getId();
+    return notification;
+  }
+
+  public String getNotificationId() {
+    return notificationId;
+  }
+
+  public void setNotificationId(String notificationId) {
+    this.notificationId = notificationId;
+  }
+
   public String getCollaboratorEmail() {
     return collaboratorEmail;
   }
@@ -92,33 +123,18 @@ public class TodoCollaborationNotification {
     this.token = token;
   }
 
+  // ids only, the log must not carry emails, names or the confirmation token
   @Override
   public String toString() {
     return "{"
-        + "\"collaboratorEmail\": \""
-        + collaboratorEmail
-        + "\","
-        + "\"collaboratorName\": \""
-        + collaboratorName
-        + "\","
-        + "\"collaboratorId\": "
-        + collaboratorId
-        + ","
-        + "\"todoTitle\": \""
-        + todoTitle
-        + "\","
-        + "\"todoDescription\": \""
-        + todoDescription
-        + "\","
-        + "\"todoPriority\": \""
-        + todoPriority
+        + "\"notificationId\": \""
+        + notificationId
         + "\","
         + "\"todoId\": "
         + todoId
         + ","
-        + "\"token\": \""
-        + token
-        + "\""
+        + "\"collaboratorId\": "
+        + collaboratorId
         + "}";
   }
 }
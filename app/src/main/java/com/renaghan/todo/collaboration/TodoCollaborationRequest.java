@@ -8,7 +8,11 @@ import jakarta.persistence.*;
 public class TodoCollaborationRequest {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todo_collaboration_request_seq")
+  @SequenceGenerator(
+      name = "todo_collaboration_request_seq",
+      sequenceName = "todo_collaboration_request_seq",
+      allocationSize = 50)
   private Long id;
 
   private String token;
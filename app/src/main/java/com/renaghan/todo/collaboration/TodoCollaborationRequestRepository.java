@@ -2,11 +2,25 @@ package com.renaghan.todo.collaboration;
 
 import com.renaghan.todo.person.Person;
 import com.renaghan.todo.todo.Todo;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 public interface TodoCollaborationRequestRepository
     extends CrudRepository<TodoCollaborationRequest, Long> {
   TodoCollaborationRequest findByTodoAndCollaborator(Todo todo, Person person);
 
   TodoCollaborationRequest findByTodoIdAndCollaboratorId(Long todoId, Long collaboratorId);
+
+  @Query(
+      """
+      select new com.renaghan.todo.collaboration.SharingPair(r.todo.id, r.collaborator.id)
+      from TodoCollaborationRequest r
+      where r.todo.id in :todoIds and r.collaborator.id in :collaboratorIds
+      """)
+  List<SharingPair> findRequestedPairs(
+      @Param("todoIds") Collection<Long> todoIds,
+      @Param("collaboratorIds") Collection<Long> collaboratorIds);
 }
@@ -1,15 +1,28 @@
 package com.renaghan.todo.collaboration;
 
+import com.renaghan.todo.outbox.OutboxService;
 import com.renaghan.todo.person.Person;
+import com.renaghan.todo.person.PersonIdentityService;
 import com.renaghan.todo.person.PersonRepository;
 import com.renaghan.todo.todo.Todo;
+import com.renaghan.todo.todo.TodoChangedEvent;
 import com.renaghan.todo.todo.TodoRepository;
-import io.awspring.cloud.sqs.operations.SqsTemplate;
 import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
@@ -19,12 +32,15 @@ public class TodoCollaborationService {
 
   private final TodoRepository todoRepository;
   private final PersonRepository personRepository;
+  private final PersonIdentityService personIdentityService;
   private final TodoCollaborationRequestRepository todoCollaborationRequestRepository;
 
-  private final SqsTemplate sqsTemplate;
+  private final OutboxService outboxService;
   private final String todoSharingQueueName;
+  private final int sharingSchemaVersion;
 
   private final SimpMessagingTemplate simpMessagingTemplate;
+  private final ApplicationEventPublisher eventPublisher;
 
   private static final Logger LOG =
       LoggerFactory.getLogger(TodoCollaborationService.class.getName());
@@ -35,24 +51,31 @@ public class TodoCollaborationService {
 
   public TodoCollaborationService(
       @Value("${custom.sharing-queue}") String todoSharingQueueName,
+      @Value("${custom.sharing-message.schema-version:1}") int sharingSchemaVersion,
       TodoRepository todoRepository,
       PersonRepository personRepository,
+      PersonIdentityService personIdentityService,
       TodoCollaborationRequestRepository todoCollaborationRequestRepository,
-      SqsTemplate sqsTemplate,
-      SimpMessagingTemplate simpMessagingTemplate) {
+      OutboxService outboxService,
+      SimpMessagingTemplate simpMessagingTemplate,
+      ApplicationEventPublisher eventPublisher) {
     this.todoRepository = todoRepository;
     this.personRepository = personRepository;
+    this.personIdentityService = personIdentityService;
     this.todoCollaborationRequestRepository = todoCollaborationRequestRepository;
-    this.sqsTemplate = sqsTemplate;
+    this.outboxService = outboxService;
     this.todoSharingQueueName = todoSharingQueueName;
+    this.sharingSchemaVersion = sharingSchemaVersion;
     this.simpMessagingTemplate = simpMessagingTemplate;
+    this.eventPublisher = eventPublisher;
   }
 
   public String shareWithCollaborator(String todoOwnerEmail, Long todoId, Long collaboratorId) {
 
     Todo todo =
-        todoRepository
-            .findByIdAndOwnerEmail(todoId, todoOwnerEmail)
+        personIdentityService
+            .findPersonId(todoOwnerEmail)
+            .flatMap(ownerId -> todoRepository.findByIdAndOwnerId(todoId, ownerId))
             .orElseThrow(() -> new IllegalArgumentException(INVALID_TODO_ID + todoId));
 
     Person collaborator =
@@ -71,6 +94,8 @@ public class TodoCollaborationService {
       collaboration.setTodo(todo);
       todo.getCollaborationRequests().add(collaboration);
       todoCollaborationRequestRepository.save(collaboration);
+
+      eventPublisher.publishEvent(TodoChangedEvent.of(this, todo));
     } else {
       LOG.info(
           "Collaboration request for todo {} with collaborator {} already exists",
@@ -78,23 +103,133 @@ public class TodoCollaborationService {
           collaboratorId);
     }
 
+    // sent by the outbox relay after commit, a rollback never leaves an orphaned email behind
     LOG.info(
         "About to share todo with id {} with collaborator {} via email", todoId, collaboratorId);
-    sqsTemplate.send(todoSharingQueueName, new TodoCollaborationNotification(collaboration));
+    TodoCollaborationNotification notification = toNotification(collaboration);
+    outboxService.enqueue(
+        todoSharingQueueName, messageGroup(notification), notification, sharingMessageHeaders());
 
     return collaborator.getName();
   }
 
+  /**
+   * Shares every todo with every collaborator. Todos, collaborators and existing requests are each
+   * resolved with one query, all new requests are inserted as one JDBC batch and their
+   * notifications leave through the outbox, which sends them in batches of ten.
+   */
+  public BulkShareResult shareWithCollaborators(
+      String todoOwnerEmail, Collection<Long> todoIds, Collection<Long> collaboratorIds) {
+    Long ownerId = personIdentityService.findPersonId(todoOwnerEmail).orElse(null);
+
+    Map<Long, Todo> todos =
+        ownerId == null
+            ? Map.of()
+            : todoRepository.findAllByIdInAndOwnerId(todoIds, ownerId).stream()
+                .collect(Collectors.toMap(Todo::getId, Function.identity()));
+    Map<Long, Person> collaborators =
+        personRepository.findAllById(collaboratorIds).stream()
+            .collect(Collectors.toMap(Person::getId, Function.identity()));
+
+    Set<SharingPair> requested =
+        todos.isEmpty() || collaborators.isEmpty()
+            ? Set.of()
+            : new HashSet<>(
+                todoCollaborationRequestRepository.findRequestedPairs(
+                    todos.keySet(), collaborators.keySet()));
+
+    List<SharingOutcome> outcomes = new ArrayList<>();
+    List<TodoCollaborationRequest> newRequests = new ArrayList<>();
+
+    for (Long todoId : new LinkedHashSet<>(todoIds)) {
+      Todo todo = todos.get(todoId);
+      for (Long collaboratorId : new LinkedHashSet<>(collaboratorIds)) {
+        Person collaborator = collaborators.get(collaboratorId);
+        SharingOutcome.Status status;
+        if (todo == null) {
+          status = SharingOutcome.Status.TODO_NOT_FOUND;
+        } else if (collaborator == null) {
+          status = SharingOutcome.Status.COLLABORATOR_NOT_FOUND;
+        } else if (collaboratorId.equals(ownerId)) {
+          status = SharingOutcome.Status.OWNER;
+        } else if (todo.getCollaborators().stream()
+            .anyMatch(existing -> existing.getId().equals(collaboratorId))) {
+          status = SharingOutcome.Status.ALREADY_COLLABORATOR;
+        } else if (requested.contains(new SharingPair(todoId, collaboratorId))) {
+          status = SharingOutcome.Status.ALREADY_REQUESTED;
+        } else {
+          // not added to todo.getCollaborationRequests(), that would load it for every todo
+          TodoCollaborationRequest collaboration = new TodoCollaborationRequest();
+          collaboration.setToken(UUID.randomUUID().toString());
+          collaboration.setCollaborator(collaborator);
+          collaboration.setTodo(todo);
+          newRequests.add(collaboration);
+          status = SharingOutcome.Status.SHARED;
+        }
+        outcomes.add(new SharingOutcome(todoId, collaboratorId, status));
+      }
+    }
+
+    if (!newRequests.isEmpty()) {
+      todoCollaborationRequestRepository.saveAll(newRequests);
+      outboxService.enqueueAll(
+          todoSharingQueueName,
+          TodoCollaborationService::messageGroup,
+          newRequests.stream().map(this::toNotification).toList(),
+          sharingMessageHeaders());
+
+      newRequests.stream()
+          .map(TodoCollaborationRequest::getTodo)
+          .distinct()
+          .forEach(todo -> eventPublisher.publishEvent(TodoChangedEvent.of(this, todo)));
+    }
+
+    LOG.info(
+        "Shared {} todos with {} collaborators, {} new collaboration requests",
+        todos.size(),
+        collaborators.size(),
+        newRequests.size());
+
+    return new BulkShareResult(newRequests.size(), outcomes);
+  }
+
+  /**
+   * Reads the fields a {@link SharingMessageFormat#COMPACT} notification leaves out from its
+   * collaboration request. Empty once the request was confirmed, nothing is left to share then.
+   */
+  public Optional<TodoCollaborationNotification> enrich(TodoCollaborationNotification compact) {
+    return Optional.ofNullable(
+            todoCollaborationRequestRepository.findByTodoIdAndCollaboratorId(
+                compact.getTodoId(), compact.getCollaboratorId()))
+        .map(request -> new TodoCollaborationNotification(request, compact.getNotificationId()));
+  }
+
+  private TodoCollaborationNotification toNotification(TodoCollaborationRequest collaboration) {
+    return sharingSchemaVersion == SharingMessageFormat.COMPACT
+        ? TodoCollaborationNotification.compact(collaboration)
+        : new TodoCollaborationNotification(collaboration);
+  }
+
+  // notifications about one todo stay in order, different todos are delivered in parallel
+  private static String messageGroup(TodoCollaborationNotification notification) {
+    return "todo-" + notification.getTodoId();
+  }
+
+  private Map<String, String> sharingMessageHeaders() {
+    return Map.of(
+        SharingMessageFormat.SCHEMA_VERSION_HEADER, String.valueOf(sharingSchemaVersion));
+  }
+
   public boolean confirmCollaboration(
       String authenticatedUserEmail, Long todoId, Long collaboratorId, String token) {
 
-    Person collaborator =
-        personRepository
-            .findByEmail(authenticatedUserEmail)
+    Long authenticatedUserId =
+        personIdentityService
+            .findPersonId(authenticatedUserEmail)
             .orElseThrow(
                 () -> new IllegalArgumentException(INVALID_PERSON_EMAIL + authenticatedUserEmail));
 
-    if (!collaborator.getId().equals(collaboratorId)) {
+    if (!authenticatedUserId.equals(collaboratorId)) {
       return false;
     }
 
@@ -115,10 +250,13 @@ public class TodoCollaborationService {
             .findById(todoId)
             .orElseThrow(() -> new IllegalArgumentException(INVALID_TODO_ID + todoId));
 
-    todo.addCollaborator(collaborator);
+    todo.addCollaborator(collaborationRequest.getCollaborator());
 
     todoCollaborationRequestRepository.delete(collaborationRequest);
 
+    // owner and every collaborator, including the new one, see changed counts or a new todo
+    eventPublisher.publishEvent(TodoChangedEvent.of(this, todo));
+
     String name = collaborationRequest.getCollaborator().getName();
     String subject = "Collaboration confirmed.";
     String message =
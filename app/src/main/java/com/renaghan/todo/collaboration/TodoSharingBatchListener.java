@@ -0,0 +1,54 @@
+package com.renaghan.todo.collaboration;
+
+import io.awspring.cloud.sqs.annotation.SqsListener;
+import io.awspring.cloud.sqs.annotation.SqsListenerAcknowledgementMode;
+import io.awspring.cloud.sqs.listener.acknowledgement.BatchAcknowledgement;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+
+/**
+ * Receives up to {@code custom.sqs-listener.max-messages-per-poll} sharing messages per call. Each
+ * message is acknowledged on its own once its email was sent, so a failed message is redelivered
+ * alone and the rest of the batch is not sent twice.
+ */
+@Component
+@ConditionalOnProperty(value = "custom.sqs-listener.batch-listener", havingValue = "true")
+public class TodoSharingBatchListener {
+
+  private final TodoSharingNotifier todoSharingNotifier;
+
+  public TodoSharingBatchListener(TodoSharingNotifier todoSharingNotifier) {
+    this.todoSharingNotifier = todoSharingNotifier;
+  }
+
+  // the emails of a batch are sent concurrently, the batch completes when all of them are done
+  @SqsListener(
+      value = "${custom.sharing-queue}",
+      acknowledgementMode = SqsListenerAcknowledgementMode.MANUAL)
+  public CompletableFuture<Void> listenToSharingMessages(
+      List<Message<TodoCollaborationNotification>> messages,
+      BatchAcknowledgement<TodoCollaborationNotification> acknowledgement) {
+    return CompletableFuture.allOf(
+        messages.stream()
+            .map(
+                message ->
+                    notifyCollaborator(message)
+                        .thenCompose(sent -> acknowledgement.acknowledgeAsync(List.of(message))))
+            .toArray(CompletableFuture[]::new));
+  }
+
+  // a message failing before its email is queued must not keep the others from being sent
+  private CompletableFuture<Void> notifyCollaborator(
+      Message<TodoCollaborationNotification> message) {
+    try {
+      return todoSharingNotifier.notifyCollaborator(
+          message.getPayload(),
+          message.getHeaders().get(SharingMessageFormat.SCHEMA_VERSION_HEADER, String.class));
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package com.renaghan.todo.collaboration;
+
+import com.renaghan.todo.mail.EmailDeliveryService;
+import com.renaghan.todo.mail.EmailTemplate;
+import com.renaghan.todo.messaging.MessageDeduplicator;
+import com.renaghan.todo.tracing.TracingEvent;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+/** Informs a collaborator about a shared todo, for single and batch sharing listeners alike. */
+@Component
+public class TodoSharingNotifier {
+
+  private final EmailDeliveryService emailDeliveryService;
+  private final TodoCollaborationService todoCollaborationService;
+  private final MessageDeduplicator messageDeduplicator;
+  private final SharingDigest sharingDigest;
+  private final boolean autoConfirmCollaborations;
+  private final String confirmEmailFromAddress;
+  private final String externalUrl;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TaskScheduler taskScheduler;
+  private final Duration autoConfirmDelay;
+
+  private static final Logger LOG = LoggerFactory.getLogger(TodoSharingNotifier.class.getName());
+
+  private static final EmailTemplate SHARING_EMAIL =
+      EmailTemplate.compile(
+          """
+    Hi {collaboratorEmail},\s
+
+    someone shared a Todo from {externalUrl} with you.
+
+    Information about the shared Todo item:\s
+
+    Title: {todoTitle}\s
+    Description: {todoDescription}\s
+    Priority: {todoPriority}\s
+
+    You can accept the collaboration by clicking this link: {externalUrl}/todo/{todoId}/collaborations/{collaboratorId}/confirm?token={token}\s
+
+    Kind regards,\s
+    Renaghan todo-app""");
+
+  public TodoSharingNotifier(
+      EmailDeliveryService emailDeliveryService,
+      TodoCollaborationService todoCollaborationService,
+      MessageDeduplicator messageDeduplicator,
+      ObjectProvider<SharingDigest> sharingDigest,
+      @Value("${custom.auto-confirm-collaborations}") boolean autoConfirmCollaborations,
+      @Value("${custom.confirm-email-from-address}") String confirmEmailFromAddress,
+      @Value("${custom.external-url}") String externalUrl,
+      ApplicationEventPublisher eventPublisher,
+      TaskScheduler taskScheduler,
+      @Value("${custom.auto-confirm-delay:2500ms}") Duration autoConfirmDelay) {
+    this.emailDeliveryService = emailDeliveryService;
+    this.todoCollaborationService = todoCollaborationService;
+    this.messageDeduplicator = messageDeduplicator;
+    this.sharingDigest = sharingDigest.getIfAvailable();
+    this.autoConfirmCollaborations = autoConfirmCollaborations;
+    this.confirmEmailFromAddress = confirmEmailFromAddress;
+    this.externalUrl = externalUrl;
+    this.eventPublisher = eventPublisher;
+    this.taskScheduler = taskScheduler;
+    this.autoConfirmDelay = autoConfirmDelay;
+  }
+
+  /**
+   * Completes once the email was sent, the message must not be acknowledged before. {@code
+   * schemaVersion} is the {@link SharingMessageFormat#SCHEMA_VERSION_HEADER} attribute, or null.
+   */
+  public CompletableFuture<Void> notifyCollaborator(
+      TodoCollaborationNotification notification, String schemaVersion) {
+    LOG.info("Incoming todo sharing payload (schema version {}): {}", schemaVersion, notification);
+
+    // notifications enqueued before they carried an id are processed as before
+    String notificationId = notification.getNotificationId();
+    if (notificationId != null && messageDeduplicator.isProcessed(notificationId)) {
+      LOG.info("Skipping duplicate todo sharing notification {}", notificationId);
+      return CompletableFuture.completedFuture(null);
+    }
+
+    TodoCollaborationNotification payload;
+    if (SharingMessageFormat.isCompact(schemaVersion)) {
+      payload = todoCollaborationService.enrich(notification).orElse(null);
+      if (payload == null) {
+        LOG.info("Collaboration request of {} is gone, nothing to share", notification);
+        return CompletableFuture.completedFuture(null);
+      }
+    } else {
+      payload = notification;
+    }
+
+    // event which is then async written to dynamodb breadcrumb table
+    this.eventPublisher.publishEvent(
+        new TracingEvent(
+            this, "collab:request:" + payload.getTodoId(), payload.getCollaboratorEmail()));
+
+    if (sharingDigest != null) {
+      // the digest entry is stored, from here on the digest is responsible for the email
+      sharingDigest.add(payload);
+      markProcessed(notificationId);
+      scheduleAutoConfirm(payload);
+      return CompletableFuture.completedFuture(null);
+    }
+
+    Map<String, Object> values = new HashMap<>();
+    values.put("collaboratorEmail", payload.getCollaboratorEmail());
+    values.put("externalUrl", externalUrl);
+    values.put("todoTitle", payload.getTodoTitle());
+    values.put("todoDescription", payload.getTodoDescription());
+    values.put("todoPriority", payload.getTodoPriority());
+    values.put("todoId", payload.getTodoId());
+    values.put("collaboratorId", payload.getCollaboratorId());
+    values.put("token", payload.getToken());
+
+    SimpleMailMessage message = new SimpleMailMessage();
+    message.setFrom(confirmEmailFromAddress);
+    message.setTo(payload.getCollaboratorEmail());
+    message.setSubject("A todo was shared with you");
+    message.setText(SHARING_EMAIL.render(values));
+
+    return emailDeliveryService
+        .send(message)
+        .thenRun(
+            () -> {
+              markProcessed(notificationId);
+              LOG.info(
+                  "Successfully informed collaborator {} about shared todo {}",
+                  payload.getCollaboratorId(),
+                  payload.getTodoId());
+              scheduleAutoConfirm(payload);
+            });
+  }
+
+  // only after the email went out, a lost mark merely lets a redelivery send it again
+  private void markProcessed(String notificationId) {
+    if (notificationId == null) {
+      return;
+    }
+    try {
+      messageDeduplicator.markProcessed(notificationId);
+    } catch (RuntimeException e) {
+      LOG.warn("Could not mark todo sharing notification {} as processed", notificationId, e);
+    }
+  }
+
+  // deferred on the scheduler, no thread waits; in digest mode it doesn't wait for the digest
+  private void scheduleAutoConfirm(TodoCollaborationNotification payload) {
+    if (autoConfirmCollaborations) {
+      taskScheduler.schedule(() -> autoConfirm(payload), Instant.now().plus(autoConfirmDelay));
+    }
+  }
+
+  private void autoConfirm(TodoCollaborationNotification payload) {
+    try {
+      todoCollaborationService.confirmCollaboration(
+          payload.getCollaboratorEmail(),
+          payload.getTodoId(),
+          payload.getCollaboratorId(),
+          payload.getToken());
+      LOG.info("Auto-confirmed collaboration request for todo: {}", payload.getTodoId());
+    } catch (RuntimeException e) {
+      LOG.warn("Could not auto-confirm collaboration request for todo {}", payload.getTodoId(), e);
+    }
+  }
+}
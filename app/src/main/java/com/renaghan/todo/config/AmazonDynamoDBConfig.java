@@ -1,11 +1,15 @@
 package com.renaghan.todo.config;
 
+import com.renaghan.todo.tracing.Breadcrumb;
 import io.awspring.cloud.dynamodb.DynamoDbTableNameResolver;
 import jakarta.annotation.Nonnull;
 import java.util.Locale;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 
 @Configuration
 public class AmazonDynamoDBConfig {
@@ -25,4 +29,11 @@ public class AmazonDynamoDBConfig {
       }
     };
   }
+
+  @Bean
+  public DynamoDbTable<Breadcrumb> breadcrumbTable(
+      DynamoDbEnhancedClient dynamoDbEnhancedClient, DynamoDbTableNameResolver tableNameResolver) {
+    return dynamoDbEnhancedClient.table(
+        tableNameResolver.resolve(Breadcrumb.class), TableSchema.fromBean(Breadcrumb.class));
+  }
 }
@@ -13,6 +13,8 @@ class CustomConfigurationProperties {
 
   @NotEmpty private String sharingQueue;
 
+  @NotEmpty private String reminderQueue;
+
   @NotEmpty private String externalUrl;
 
   private boolean autoConfirmCollaborations;
@@ -43,6 +45,14 @@ class CustomConfigurationProperties {
     this.sharingQueue = sharingQueue;
   }
 
+  public String getReminderQueue() {
+    return reminderQueue;
+  }
+
+  public void setReminderQueue(String reminderQueue) {
+    this.reminderQueue = reminderQueue;
+  }
+
   public String getExternalUrl() {
     return externalUrl;
   }
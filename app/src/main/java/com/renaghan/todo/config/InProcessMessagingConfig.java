@@ -0,0 +1,42 @@
+package com.renaghan.todo.config;
+
+import com.renaghan.todo.collaboration.SharingMessageFormat;
+import com.renaghan.todo.collaboration.TodoCollaborationNotification;
+import com.renaghan.todo.collaboration.TodoSharingNotifier;
+import com.renaghan.todo.messaging.InProcessSubscription;
+import com.renaghan.todo.reminder.ReminderListener;
+import com.renaghan.todo.reminder.ReminderNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/** Subscribes the queue consumers to the in-process broker, in place of their SQS listeners. */
+@Configuration
+@ConditionalOnProperty(value = "custom.messaging.backend", havingValue = "in-process")
+public class InProcessMessagingConfig {
+
+  @Bean
+  public InProcessSubscription todoSharingSubscription(
+      @Value("${custom.sharing-queue}") String sharingQueue,
+      TodoSharingNotifier todoSharingNotifier) {
+    return InProcessSubscription.of(
+        sharingQueue,
+        TodoCollaborationNotification.class,
+        message ->
+            todoSharingNotifier.notifyCollaborator(
+                message.getPayload(),
+                message
+                    .getHeaders()
+                    .get(SharingMessageFormat.SCHEMA_VERSION_HEADER, String.class)));
+  }
+
+  @Bean
+  public InProcessSubscription reminderSubscription(
+      @Value("${custom.reminder-queue}") String reminderQueue, ReminderListener reminderListener) {
+    return InProcessSubscription.of(
+        reminderQueue,
+        ReminderNotification.class,
+        message -> reminderListener.listenToReminderMessages(message.getPayload()));
+  }
+}
@@ -0,0 +1,122 @@
+package com.renaghan.todo.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * Read-only side of the routing setup. Hands out replica connections while the replica is
+ * reachable and no further behind than {@code maxLag}, and primary connections otherwise.
+ */
+public class LagAwareReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LagAwareReplicaDataSource.class);
+
+  // a replica that has replayed everything it received is not lagging, even if the primary was
+  // idle and the last replayed transaction is old
+  private static final String LAG_QUERY =
+      "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0"
+          + " else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end";
+
+  private static final ThreadLocal<Boolean> PRIMARY_REQUIRED =
+      ThreadLocal.withInitial(() -> false);
+
+  private final DataSource primary;
+  private final DataSource replica;
+  private final double maxLagSeconds;
+  private final ScheduledExecutorService lagChecker;
+
+  private volatile boolean replicaUsable = false;
+  private volatile double replicaLagSeconds = -1;
+
+  public LagAwareReplicaDataSource(
+      DataSource primary,
+      DataSource replica,
+      Duration maxLag,
+      Duration lagCheckInterval,
+      MeterRegistry meterRegistry) {
+    this.primary = primary;
+    this.replica = replica;
+    this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+    this.lagChecker =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "replica-lag-check");
+              thread.setDaemon(true);
+              return thread;
+            });
+
+    Gauge.builder("stratospheric.datasource.replica.lag", this, ds -> ds.replicaLagSeconds)
+        .description("Replication lag of the read replica in seconds, -1 if unreachable")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+    Gauge.builder("stratospheric.datasource.replica.usable", this, ds -> ds.replicaUsable ? 1 : 0)
+        .description("Whether read-only transactions are currently routed to the replica")
+        .register(meterRegistry);
+
+    lagChecker.scheduleWithFixedDelay(
+        this::checkReplicaLag, 0, lagCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /** Runs read-only work against the primary, e.g. to read a user's own recent writes. */
+  public static <T> T readFromPrimary(Supplier<T> work) {
+    boolean previous = PRIMARY_REQUIRED.get();
+    PRIMARY_REQUIRED.set(true);
+    try {
+      return work.get();
+    } finally {
+      PRIMARY_REQUIRED.set(previous);
+    }
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return currentTarget().getConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return currentTarget().getConnection(username, password);
+  }
+
+  @Override
+  public void close() {
+    lagChecker.shutdownNow();
+  }
+
+  private DataSource currentTarget() {
+    return replicaUsable && !PRIMARY_REQUIRED.get() ? replica : primary;
+  }
+
+  private void checkReplicaLag() {
+    try (Connection connection = replica.getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+      resultSet.next();
+      replicaLagSeconds = resultSet.getDouble(1);
+      boolean usable = replicaLagSeconds <= maxLagSeconds;
+      if (usable != replicaUsable) {
+        LOG.info("Read replica usable: {}, lag {}s", usable, replicaLagSeconds);
+      }
+      replicaUsable = usable;
+    } catch (SQLException | RuntimeException e) {
+      if (replicaUsable) {
+        LOG.warn("Read replica unreachable, routing reads to the primary", e);
+      }
+      replicaLagSeconds = -1;
+      replicaUsable = false;
+    }
+  }
+}
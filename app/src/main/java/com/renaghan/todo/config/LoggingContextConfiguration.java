@@ -1,5 +1,6 @@
 package com.renaghan.todo.config;
 
+import com.renaghan.todo.tracing.TraceSampler;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
@@ -11,14 +12,20 @@ class LoggingContextConfiguration implements WebMvcConfigurer {
 
   private final MeterRegistry meterRegistry;
   private final ApplicationEventPublisher eventPublisher;
+  private final TraceSampler traceSampler;
 
-  public LoggingContextConfiguration(MeterRegistry meterRegistry, ApplicationEventPublisher eventPublisher) {
-    this.meterRegistry= meterRegistry;
+  public LoggingContextConfiguration(
+      MeterRegistry meterRegistry,
+      ApplicationEventPublisher eventPublisher,
+      TraceSampler traceSampler) {
+    this.meterRegistry = meterRegistry;
     this.eventPublisher = eventPublisher;
+    this.traceSampler = traceSampler;
   }
 
   @Override
   public void addInterceptors(InterceptorRegistry registry) {
-    registry.addInterceptor(new LoggingContextInterceptor(meterRegistry, eventPublisher));
+    registry.addInterceptor(
+        new LoggingContextInterceptor(meterRegistry, eventPublisher, traceSampler));
   }
 }
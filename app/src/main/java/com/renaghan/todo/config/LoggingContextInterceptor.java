@@ -1,5 +1,6 @@
 package com.renaghan.todo.config;
 
+import com.renaghan.todo.tracing.TraceSampler;
 import com.renaghan.todo.tracing.TracingEvent;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
@@ -10,6 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
@@ -20,11 +22,15 @@ class LoggingContextInterceptor implements HandlerInterceptor {
   private final Logger logger = LoggerFactory.getLogger(LoggingContextInterceptor.class);
   private final MeterRegistry meterRegistry;
   private final ApplicationEventPublisher eventPublisher;
+  private final TraceSampler traceSampler;
 
   public LoggingContextInterceptor(
-      MeterRegistry meterRegistry, ApplicationEventPublisher eventPublisher) {
+      MeterRegistry meterRegistry,
+      ApplicationEventPublisher eventPublisher,
+      TraceSampler traceSampler) {
     this.meterRegistry = meterRegistry;
     this.eventPublisher = eventPublisher;
+    this.traceSampler = traceSampler;
   }
 
   @Override
@@ -37,8 +43,14 @@ class LoggingContextInterceptor implements HandlerInterceptor {
     String userId = getUserIdFromPrincipal(authentication.getPrincipal());
     // logback context so gets in cloudwatch json logging
     MDC.put("userId", userId);
-    // event which is then async written to dynamodb breadcrumb table
-    this.eventPublisher.publishEvent(new TracingEvent(this, request.getRequestURI(), userId));
+    // event which is then async written to dynamodb breadcrumb table, for sampled requests only
+    // all anonymous visitors share one principal, so they are capped per client address instead
+    boolean anonymous = authentication instanceof AnonymousAuthenticationToken;
+    String budgetKey = anonymous ? request.getRemoteAddr() : userId;
+    if (traceSampler.shouldSample(
+        request.getMethod(), request.getRequestURI(), budgetKey, anonymous)) {
+      this.eventPublisher.publishEvent(new TracingEvent(this, request.getRequestURI(), userId));
+    }
 
     meterRegistry
         .counter("stratospheric.web.hits", Tags.of("uri", request.getRequestURI()))
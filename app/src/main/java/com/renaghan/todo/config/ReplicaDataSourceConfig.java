@@ -0,0 +1,88 @@
+package com.renaghan.todo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Sends {@code @Transactional(readOnly = true)} work to a read replica and everything else to the
+ * primary. The proxy only picks a pool once the transaction has been marked read-only, which is
+ * why the connection has to be lazy.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "custom.datasource.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+  @Bean(destroyMethod = "close")
+  public HikariDataSource primaryDataSource(
+      DataSourceProperties properties, Environment environment) {
+    HikariDataSource primary =
+        properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+    primary.setPoolName("primary");
+
+    return primary;
+  }
+
+  @Bean(destroyMethod = "close")
+  public HikariDataSource replicaDataSource(
+      DataSourceProperties properties,
+      Environment environment,
+      @Value("${custom.datasource.replica.url}") String replicaUrl,
+      @Value("${custom.datasource.replica.username:${spring.datasource.username}}")
+          String replicaUsername,
+      @Value("${custom.datasource.replica.password:${spring.datasource.password}}")
+          String replicaPassword) {
+    Binder binder = Binder.get(environment);
+
+    HikariDataSource replica =
+        DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .driverClassName(properties.determineDriverClassName())
+            .url(replicaUrl)
+            .username(replicaUsername)
+            .password(replicaPassword)
+            .build();
+    binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+    binder.bind("custom.datasource.replica.hikari", Bindable.ofInstance(replica));
+    replica.setPoolName("replica");
+    replica.setReadOnly(true);
+
+    return replica;
+  }
+
+  /** Stops the lag check on shutdown, before the pools it polls are closed. */
+  @Bean(destroyMethod = "close")
+  public LagAwareReplicaDataSource lagAwareReplicaDataSource(
+      @Qualifier("primaryDataSource") HikariDataSource primary,
+      @Qualifier("replicaDataSource") HikariDataSource replica,
+      MeterRegistry meterRegistry,
+      @Value("${custom.datasource.replica.max-lag:5s}") Duration maxLag,
+      @Value("${custom.datasource.replica.lag-check-interval:5s}") Duration lagCheckInterval) {
+    return new LagAwareReplicaDataSource(primary, replica, maxLag, lagCheckInterval, meterRegistry);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      @Qualifier("primaryDataSource") HikariDataSource primary,
+      LagAwareReplicaDataSource lagAwareReplicaDataSource) {
+    LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+    dataSource.setReadOnlyDataSource(lagAwareReplicaDataSource);
+
+    return dataSource;
+  }
+}
@@ -0,0 +1,92 @@
+package com.renaghan.todo.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.OptionalLong;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate second-level cache backed by an in-process Caffeine JCache provider. Each region
+ * named in {@code custom.second-level-cache.regions} is created up front with its own size and
+ * time-to-live, the entities opt in with {@code @Cache(region = ...)}.
+ */
+@Configuration
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+@ConditionalOnProperty(prefix = "custom.second-level-cache", name = "enabled", havingValue = "true")
+public class SecondLevelCacheConfig {
+
+  @Bean(destroyMethod = "close")
+  public CacheManager secondLevelCacheManager(SecondLevelCacheProperties properties) {
+    CacheManager cacheManager =
+        Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+
+    properties
+        .getRegions()
+        .forEach(
+            (name, region) -> {
+              CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+              configuration.setMaximumSize(OptionalLong.of(region.getMaximumSize()));
+              configuration.setExpireAfterWrite(
+                  OptionalLong.of(region.getTimeToLive().toNanos()));
+              configuration.setStatisticsEnabled(true);
+              cacheManager.createCache(name, configuration);
+            });
+
+    return cacheManager;
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager cacheManager) {
+    return hibernateProperties -> {
+      // overrides the default of false in application.yml
+      hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+      hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+      hibernateProperties.put("hibernate.javax.cache.cache_manager", cacheManager);
+      hibernateProperties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+      // required for the per-region hit and miss counts below
+      hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+    };
+  }
+
+  @Bean
+  public MeterBinder secondLevelCacheMetrics(
+      EntityManagerFactory entityManagerFactory, SecondLevelCacheProperties properties) {
+    return registry -> {
+      Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+      properties
+          .getRegions()
+          .keySet()
+          .forEach(
+              region ->
+                  Gauge.builder(
+                          "stratospheric.hibernate.cache.hit.ratio",
+                          statistics,
+                          stats -> hitRatio(stats.getDomainDataRegionStatistics(region)))
+                      .description("Second-level cache hit ratio since startup")
+                      .tag("region", region)
+                      .register(registry));
+    };
+  }
+
+  private static double hitRatio(CacheRegionStatistics regionStatistics) {
+    if (regionStatistics == null) {
+      return 0;
+    }
+    long requests = regionStatistics.getHitCount() + regionStatistics.getMissCount();
+    return requests == 0 ? 0 : (double) regionStatistics.getHitCount() / requests;
+  }
+}
@@ -0,0 +1,55 @@
+package com.renaghan.todo.config;
+
+import io.awspring.cloud.sqs.config.SqsMessageListenerContainerFactory;
+import io.awspring.cloud.sqs.listener.acknowledgement.handler.AcknowledgementMode;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+
+/**
+ * Replaces the auto-configured container factory used by every {@code @SqsListener}. Listeners
+ * with a {@code List} parameter are switched to batch mode by Spring Cloud AWS on their own.
+ */
+@Configuration
+@ConditionalOnProperty(
+    value = "custom.messaging.backend",
+    havingValue = "sqs",
+    matchIfMissing = true)
+@EnableConfigurationProperties(SqsListenerProperties.class)
+public class SqsListenerConfig {
+
+  @Bean
+  public SqsMessageListenerContainerFactory<Object> defaultSqsListenerContainerFactory(
+      SqsAsyncClient sqsAsyncClient,
+      SqsListenerProperties properties,
+      MeterRegistry meterRegistry,
+      TaskScheduler taskScheduler) {
+    SqsListenerObserver observer =
+        new SqsListenerObserver(
+            meterRegistry,
+            taskScheduler,
+            properties.getMessageVisibility(),
+            properties.getVisibilityExtensionInterval());
+
+    return SqsMessageListenerContainerFactory.builder()
+        .sqsAsyncClient(sqsAsyncClient)
+        .configure(
+            options ->
+                options
+                    .maxConcurrentMessages(properties.getMaxConcurrentMessages())
+                    .maxMessagesPerPoll(properties.getMaxMessagesPerPoll())
+                    .pollTimeout(properties.getPollTimeout())
+                    .messageVisibility(properties.getMessageVisibility())
+                    .acknowledgementMode(AcknowledgementMode.ON_SUCCESS)
+                    // successful messages are deleted in batches, by count or by age
+                    .acknowledgementInterval(properties.getAcknowledgementInterval())
+                    .acknowledgementThreshold(properties.getAcknowledgementThreshold()))
+        .messageInterceptor(observer)
+        .acknowledgementResultCallback(observer)
+        .build();
+  }
+}
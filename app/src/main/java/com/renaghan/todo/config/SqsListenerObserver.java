@@ -0,0 +1,151 @@
+package com.renaghan.todo.config;
+
+import io.awspring.cloud.sqs.listener.SqsHeaders;
+import io.awspring.cloud.sqs.listener.Visibility;
+import io.awspring.cloud.sqs.listener.acknowledgement.AcknowledgementResultCallback;
+import io.awspring.cloud.sqs.listener.interceptor.MessageInterceptor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.scheduling.TaskScheduler;
+
+/**
+ * Records in-flight messages, processing time and acknowledgement latency of every SQS listener,
+ * and keeps messages that take longer than their visibility timeout from being redelivered.
+ */
+class SqsListenerObserver
+    implements MessageInterceptor<Object>, AcknowledgementResultCallback<Object> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SqsListenerObserver.class);
+
+  private final MeterRegistry meterRegistry;
+  private final TaskScheduler taskScheduler;
+  private final Duration messageVisibility;
+  private final Duration visibilityExtensionInterval;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final Map<UUID, InFlight> processing = new ConcurrentHashMap<>();
+  private final Map<UUID, Long> processedAt = new ConcurrentHashMap<>();
+
+  SqsListenerObserver(
+      MeterRegistry meterRegistry,
+      TaskScheduler taskScheduler,
+      Duration messageVisibility,
+      Duration visibilityExtensionInterval) {
+    this.meterRegistry = meterRegistry;
+    this.taskScheduler = taskScheduler;
+    this.messageVisibility = messageVisibility;
+    this.visibilityExtensionInterval = visibilityExtensionInterval;
+
+    Gauge.builder("stratospheric.sqs.listener.in-flight", inFlight, AtomicInteger::get)
+        .description("Messages handed to listeners and not processed yet")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public Message<Object> intercept(Message<Object> message) {
+    inFlight.incrementAndGet();
+    processing.put(
+        message.getHeaders().getId(),
+        new InFlight(Timer.start(meterRegistry), extendVisibility(message)));
+    return message;
+  }
+
+  @Override
+  public Collection<Message<Object>> intercept(Collection<Message<Object>> messages) {
+    messages.forEach(this::intercept);
+    return messages;
+  }
+
+  @Override
+  public void afterProcessing(Message<Object> message, Throwable t) {
+    InFlight state = processing.remove(message.getHeaders().getId());
+    if (state == null) {
+      return;
+    }
+    inFlight.decrementAndGet();
+    if (state.visibilityExtension != null) {
+      state.visibilityExtension.cancel(false);
+    }
+    state.sample.stop(
+        Timer.builder("stratospheric.sqs.listener.processing")
+            .description("Time a listener spent on a message")
+            .tag("queue", queueName(message))
+            .tag("outcome", t == null ? "success" : "failure")
+            .register(meterRegistry));
+    if (t == null) {
+      processedAt.put(message.getHeaders().getId(), System.nanoTime());
+    }
+  }
+
+  @Override
+  public void afterProcessing(Collection<Message<Object>> messages, Throwable t) {
+    messages.forEach(message -> afterProcessing(message, t));
+  }
+
+  @Override
+  public void onSuccess(Collection<Message<Object>> messages) {
+    recordAcknowledgements(messages, "success");
+  }
+
+  @Override
+  public void onFailure(Collection<Message<Object>> messages, Throwable t) {
+    LOG.warn("Could not acknowledge {} messages", messages.size(), t);
+    recordAcknowledgements(messages, "failure");
+  }
+
+  private void recordAcknowledgements(Collection<Message<Object>> messages, String outcome) {
+    long now = System.nanoTime();
+    for (Message<Object> message : messages) {
+      Long processed = processedAt.remove(message.getHeaders().getId());
+      if (processed != null) {
+        Timer.builder("stratospheric.sqs.listener.acknowledgement")
+            .description("Time from the end of processing until SQS confirmed the deletion")
+            .tag("queue", queueName(message))
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .record(now - processed, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+
+  private ScheduledFuture<?> extendVisibility(Message<Object> message) {
+    Object visibility = message.getHeaders().get(SqsHeaders.SQS_VISIBILITY_TIMEOUT_HEADER);
+    if (visibilityExtensionInterval.isZero() || !(visibility instanceof Visibility timeout)) {
+      return null;
+    }
+    int seconds = (int) messageVisibility.toSeconds();
+    return taskScheduler.scheduleAtFixedRate(
+        () -> timeout.changeToAsync(seconds),
+        Instant.now().plus(visibilityExtensionInterval),
+        visibilityExtensionInterval);
+  }
+
+  private static String queueName(Message<Object> message) {
+    Object queueName = message.getHeaders().get(SqsHeaders.SQS_QUEUE_NAME_HEADER);
+    return queueName == null ? "unknown" : queueName.toString();
+  }
+
+  private static class InFlight {
+
+    private final Timer.Sample sample;
+    private final ScheduledFuture<?> visibilityExtension;
+
+    InFlight(Timer.Sample sample, ScheduledFuture<?> visibilityExtension) {
+      this.sample = sample;
+      this.visibilityExtension = visibilityExtension;
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.renaghan.todo.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "custom.sqs-listener")
+class SqsListenerProperties {
+
+  private int maxConcurrentMessages = 10;
+
+  private int maxMessagesPerPoll = 10;
+
+  // long polling, SQS waits up to 20 seconds
+  private Duration pollTimeout = Duration.ofSeconds(20);
+
+  private Duration messageVisibility = Duration.ofSeconds(30);
+
+  // extends the visibility of messages still in processing, zero disables the extension
+  private Duration visibilityExtensionInterval = Duration.ofSeconds(20);
+
+  private Duration acknowledgementInterval = Duration.ofSeconds(1);
+
+  private int acknowledgementThreshold = 10;
+
+  public int getMaxConcurrentMessages() {
+    return maxConcurrentMessages;
+  }
+
+  public void setMaxConcurrentMessages(int maxConcurrentMessages) {
+    this.maxConcurrentMessages = maxConcurrentMessages;
+  }
+
+  public int getMaxMessagesPerPoll() {
+    return maxMessagesPerPoll;
+  }
+
+  public void setMaxMessagesPerPoll(int maxMessagesPerPoll) {
+    this.maxMessagesPerPoll = maxMessagesPerPoll;
+  }
+
+  public Duration getPollTimeout() {
+    return pollTimeout;
+  }
+
+  public void setPollTimeout(Duration pollTimeout) {
+    this.pollTimeout = pollTimeout;
+  }
+
+  public Duration getMessageVisibility() {
+    return messageVisibility;
+  }
+
+  public void setMessageVisibility(Duration messageVisibility) {
+    this.messageVisibility = messageVisibility;
+  }
+
+  public Duration getVisibilityExtensionInterval() {
+    return visibilityExtensionInterval;
+  }
+
+  public void setVisibilityExtensionInterval(Duration visibilityExtensionInterval) {
+    this.visibilityExtensionInterval = visibilityExtensionInterval;
+  }
+
+  public Duration getAcknowledgementInterval() {
+    return acknowledgementInterval;
+  }
+
+  public void setAcknowledgementInterval(Duration acknowledgementInterval) {
+    this.acknowledgementInterval = acknowledgementInterval;
+  }
+
+  public int getAcknowledgementThreshold() {
+    return acknowledgementThreshold;
+  }
+
+  public void setAcknowledgementThreshold(int acknowledgementThreshold) {
+    this.acknowledgementThreshold = acknowledgementThreshold;
+  }
+}
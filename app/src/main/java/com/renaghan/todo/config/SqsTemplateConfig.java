@@ -1,11 +1,16 @@
 package com.renaghan.todo.config;
 
 import io.awspring.cloud.sqs.operations.SqsTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.services.sqs.SqsAsyncClient;
 
 @Configuration
+@ConditionalOnProperty(
+    value = "custom.messaging.backend",
+    havingValue = "sqs",
+    matchIfMissing = true)
 public class SqsTemplateConfig {
 
   @Bean
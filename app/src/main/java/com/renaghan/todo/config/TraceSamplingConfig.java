@@ -0,0 +1,25 @@
+package com.renaghan.todo.config;
+
+import com.renaghan.todo.tracing.TraceSampler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(TraceSamplingProperties.class)
+public class TraceSamplingConfig {
+
+  @Bean
+  public TraceSampler traceSampler(
+      TraceSamplingProperties properties, MeterRegistry meterRegistry) {
+    return new TraceSampler(
+        properties.getInclude(),
+        properties.getExclude(),
+        properties.getAlwaysSample(),
+        properties.getAlwaysSampleMethods(),
+        properties.getProbability(),
+        properties.getMaxPerUserPerMinute(),
+        meterRegistry);
+  }
+}
@@ -0,0 +1,73 @@
+package com.renaghan.todo.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "custom.trace-sampling")
+class TraceSamplingProperties {
+
+  // empty includes every path
+  private List<String> include = new ArrayList<>();
+
+  private List<String> exclude = new ArrayList<>();
+
+  // kept regardless of probability and user cap
+  private List<String> alwaysSample = new ArrayList<>();
+
+  private List<String> alwaysSampleMethods =
+      new ArrayList<>(List.of("POST", "PUT", "PATCH", "DELETE"));
+
+  private double probability = 1.0;
+
+  // zero disables the cap
+  private int maxPerUserPerMinute = 0;
+
+  public List<String> getInclude() {
+    return include;
+  }
+
+  public void setInclude(List<String> include) {
+    this.include = include;
+  }
+
+  public List<String> getExclude() {
+    return exclude;
+  }
+
+  public void setExclude(List<String> exclude) {
+    this.exclude = exclude;
+  }
+
+  public List<String> getAlwaysSample() {
+    return alwaysSample;
+  }
+
+  public void setAlwaysSample(List<String> alwaysSample) {
+    this.alwaysSample = alwaysSample;
+  }
+
+  public List<String> getAlwaysSampleMethods() {
+    return alwaysSampleMethods;
+  }
+
+  public void setAlwaysSampleMethods(List<String> alwaysSampleMethods) {
+    this.alwaysSampleMethods = alwaysSampleMethods;
+  }
+
+  public double getProbability() {
+    return probability;
+  }
+
+  public void setProbability(double probability) {
+    this.probability = probability;
+  }
+
+  public int getMaxPerUserPerMinute() {
+    return maxPerUserPerMinute;
+  }
+
+  public void setMaxPerUserPerMinute(int maxPerUserPerMinute) {
+    this.maxPerUserPerMinute = maxPerUserPerMinute;
+  }
+}
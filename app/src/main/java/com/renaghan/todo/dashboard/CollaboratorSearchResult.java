@@ -0,0 +1,22 @@
+package com.renaghan.todo.dashboard;
+
+import java.util.List;
+
+public class CollaboratorSearchResult {
+
+  private final List<CollaboratorDto> collaborators;
+  private final boolean hasMore;
+
+  public CollaboratorSearchResult(List<CollaboratorDto> collaborators, boolean hasMore) {
+    this.collaborators = collaborators;
+    this.hasMore = hasMore;
+  }
+
+  public List<CollaboratorDto> getCollaborators() {
+    return collaborators;
+  }
+
+  public boolean isHasMore() {
+    return hasMore;
+  }
+}
@@ -1,12 +1,14 @@
 package com.renaghan.todo.dashboard;
 
-import java.util.List;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 
 @Controller
 @RequestMapping("/dashboard")
@@ -19,15 +21,26 @@ public class DashboardController {
   }
 
   @GetMapping
-  public String getDashboard(Model model, @AuthenticationPrincipal OidcUser user) {
-    model.addAttribute("collaborators", List.of());
-
+  public String getDashboard(
+      Model model,
+      @ModelAttribute("filter") DashboardFilter filter,
+      @RequestParam(name = "after", required = false) String after,
+      @AuthenticationPrincipal OidcUser user) {
     if (user != null) {
-      model.addAttribute(
-          "collaborators", dashboardService.getAvailableCollaborators(user.getEmail()));
-      model.addAttribute("todos", dashboardService.getAllOwnedAndSharedTodos(user.getEmail()));
+      DashboardPage page = dashboardService.getOwnedAndSharedTodos(user.getEmail(), filter, after);
+      model.addAttribute("todos", page.getTodos());
+      model.addAttribute("nextCursor", page.getNextCursor());
     }
 
     return "dashboard";
   }
+
+  @GetMapping("/collaborators")
+  @ResponseBody
+  public CollaboratorSearchResult searchCollaborators(
+      @RequestParam(name = "q", defaultValue = "") String query,
+      @RequestParam(name = "page", defaultValue = "0") int page,
+      @AuthenticationPrincipal OidcUser user) {
+    return dashboardService.searchCollaborators(user.getEmail(), query, page);
+  }
 }
@@ -0,0 +1,89 @@
+package com.renaghan.todo.dashboard;
+
+import com.renaghan.todo.todo.Priority;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.function.Function;
+
+/** Opaque keyset position: the sort key and id of the last todo on the previous page. */
+public class DashboardCursor {
+
+  private static final String SEPARATOR = "~";
+
+  private final DashboardSort sort;
+  private final Long id;
+  private final LocalDate dueDate;
+  private final Priority priority;
+
+  private DashboardCursor(DashboardSort sort, Long id, LocalDate dueDate, Priority priority) {
+    this.sort = sort;
+    this.id = id;
+    this.dueDate = dueDate;
+    this.priority = priority;
+  }
+
+  public static DashboardCursor after(DashboardSort sort, TodoDto todo) {
+    return new DashboardCursor(sort, todo.getId(), todo.getDueDate(), todo.getPriority());
+  }
+
+  /** Returns null for a missing, malformed or differently sorted cursor so paging restarts. */
+  public static DashboardCursor decode(String cursor, DashboardSort sort) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+
+    try {
+      String[] parts =
+          new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+              .split(SEPARATOR, -1);
+      if (parts.length != 3 || DashboardSort.valueOf(parts[0]) != sort) {
+        return null;
+      }
+
+      long id = Long.parseLong(parts[2]);
+      return switch (sort) {
+        case ID -> new DashboardCursor(sort, id, null, null);
+        case DUE_DATE -> new DashboardCursor(sort, id, parse(parts[1], LocalDate::parse), null);
+        case PRIORITY -> new DashboardCursor(sort, id, null, parse(parts[1], Priority::valueOf));
+      };
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+
+  public String encode() {
+    String value =
+        switch (sort) {
+          case ID -> "";
+          case DUE_DATE -> dueDate == null ? "" : dueDate.toString();
+          case PRIORITY -> priority == null ? "" : priority.name();
+        };
+
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(
+            (sort.name() + SEPARATOR + value + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+  }
+
+  // an empty sort key is a todo without a due date or priority, those sort last
+  private static <T> T parse(String value, Function<String, T> parser) {
+    return value.isEmpty() ? null : parser.apply(value);
+  }
+
+  public DashboardSort getSort() {
+    return sort;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public LocalDate getDueDate() {
+    return dueDate;
+  }
+
+  public Priority getPriority() {
+    return priority;
+  }
+}
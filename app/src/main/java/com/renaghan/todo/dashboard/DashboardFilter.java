@@ -0,0 +1,69 @@
+package com.renaghan.todo.dashboard;
+
+import com.renaghan.todo.todo.Priority;
+import com.renaghan.todo.todo.Status;
+import java.time.LocalDate;
+import org.springframework.format.annotation.DateTimeFormat;
+
+public class DashboardFilter {
+
+  private Status status;
+
+  private Priority priority;
+
+  @DateTimeFormat(pattern = "yyyy-MM-dd")
+  private LocalDate dueFrom;
+
+  @DateTimeFormat(pattern = "yyyy-MM-dd")
+  private LocalDate dueTo;
+
+  private DashboardSort sort = DashboardSort.ID;
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public void setStatus(Status status) {
+    this.status = status;
+  }
+
+  public Priority getPriority() {
+    return priority;
+  }
+
+  public void setPriority(Priority priority) {
+    this.priority = priority;
+  }
+
+  public LocalDate getDueFrom() {
+    return dueFrom;
+  }
+
+  public void setDueFrom(LocalDate dueFrom) {
+    this.dueFrom = dueFrom;
+  }
+
+  public LocalDate getDueTo() {
+    return dueTo;
+  }
+
+  public void setDueTo(LocalDate dueTo) {
+    this.dueTo = dueTo;
+  }
+
+  public DashboardSort getSort() {
+    return sort;
+  }
+
+  public void setSort(DashboardSort sort) {
+    this.sort = sort == null ? DashboardSort.ID : sort;
+  }
+
+  public boolean isUnfiltered() {
+    return status == null
+        && priority == null
+        && dueFrom == null
+        && dueTo == null
+        && sort == DashboardSort.ID;
+  }
+}
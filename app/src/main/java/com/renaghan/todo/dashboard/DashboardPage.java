@@ -0,0 +1,26 @@
+package com.renaghan.todo.dashboard;
+
+import java.util.List;
+
+public class DashboardPage {
+
+  private final List<TodoDto> todos;
+  private final String nextCursor;
+
+  public DashboardPage(List<TodoDto> todos, String nextCursor) {
+    this.todos = todos;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<TodoDto> getTodos() {
+    return todos;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public boolean hasNext() {
+    return nextCursor != null;
+  }
+}
@@ -1,48 +1,116 @@
 package com.renaghan.todo.dashboard;
 
-import com.renaghan.todo.person.Person;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.renaghan.todo.person.PersonIdentityService;
 import com.renaghan.todo.person.PersonRepository;
+import com.renaghan.todo.todo.RecentTodoWriters;
+import com.renaghan.todo.todo.TodoChangedEvent;
 import com.renaghan.todo.todo.TodoRepository;
-
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class DashboardService {
 
+  static final int COLLABORATOR_PAGE_SIZE = 20;
+  static final int TODO_PAGE_SIZE = 25;
+
   private final PersonRepository personRepository;
+  private final PersonIdentityService personIdentityService;
   private final TodoRepository todoRepository;
+  private final RecentTodoWriters recentTodoWriters;
 
-  public DashboardService(PersonRepository personRepository, TodoRepository todoRepository) {
+  // first, unfiltered dashboard page per user email, which is what almost every reload asks for
+  private final Cache<String, DashboardPage> dashboardCache;
+
+  public DashboardService(
+      PersonRepository personRepository,
+      PersonIdentityService personIdentityService,
+      TodoRepository todoRepository,
+      RecentTodoWriters recentTodoWriters,
+      MeterRegistry meterRegistry,
+      @Value("${custom.dashboard-cache.maximum-size:10000}") long dashboardCacheMaximumSize,
+      @Value("${custom.dashboard-cache.time-to-live:5m}") Duration dashboardCacheTimeToLive) {
     this.personRepository = personRepository;
+    this.personIdentityService = personIdentityService;
     this.todoRepository = todoRepository;
+    this.recentTodoWriters = recentTodoWriters;
+    this.dashboardCache =
+        Caffeine.newBuilder()
+            .maximumSize(dashboardCacheMaximumSize)
+            .expireAfterWrite(dashboardCacheTimeToLive)
+            .recordStats()
+            .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, dashboardCache, "dashboard");
   }
 
-  public List<CollaboratorDto> getAvailableCollaborators(String email) {
-    List<Person> collaborators = personRepository.findByEmailNot(email);
+  public CollaboratorSearchResult searchCollaborators(String email, String query, int page) {
+    Slice<CollaboratorDto> collaborators =
+        personRepository.findCollaboratorsByNamePrefix(
+            toLikePrefix(query),
+            email,
+            PageRequest.of(Math.max(page, 0), COLLABORATOR_PAGE_SIZE));
 
-    return collaborators.stream()
-        .map(person -> new CollaboratorDto(person.getId(), person.getName()))
-        .collect(Collectors.toList());
+    return new CollaboratorSearchResult(collaborators.getContent(), collaborators.hasNext());
   }
 
-  public List<TodoDto> getAllOwnedAndSharedTodos(String email) {
+  public DashboardPage getOwnedAndSharedTodos(String email, DashboardFilter filter, String after) {
+    return recentTodoWriters.read(email, () -> getCachedOrLoad(email, filter, after));
+  }
 
-    List<TodoDto> ownedTodos =
-        todoRepository.findAllByOwnerEmailOrderByIdAsc(email).stream()
-            .map(todo -> new TodoDto(todo, false))
-            .collect(Collectors.toList());
+  /** Runs after commit so a concurrent reload cannot re-cache the pre-change state. */
+  @TransactionalEventListener(fallbackExecution = true)
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void evictDashboards(TodoChangedEvent event) {
+    dashboardCache.invalidateAll(event.getAffectedEmails());
+  }
 
-    List<TodoDto> collaborativeTodos =
-        todoRepository.findAllByCollaboratorsEmailOrderByIdAsc(email).stream()
-            .map(todo -> new TodoDto(todo, true))
-            .collect(Collectors.toList());
+  private DashboardPage getCachedOrLoad(String email, DashboardFilter filter, String after) {
+    if (filter.isUnfiltered() && (after == null || after.isBlank())) {
+      return dashboardCache.get(email, key -> loadOwnedAndSharedTodos(key, filter, null));
+    }
 
-    ownedTodos.addAll(collaborativeTodos);
+    return loadOwnedAndSharedTodos(email, filter, after);
+  }
+
+  private DashboardPage loadOwnedAndSharedTodos(
+      String email, DashboardFilter filter, String after) {
+    Long personId = personIdentityService.findPersonId(email).orElse(null);
+    if (personId == null) {
+      // nothing is owned or shared until the person is created with the first todo
+      return new DashboardPage(List.of(), null);
+    }
+
+    DashboardCursor cursor = DashboardCursor.decode(after, filter.getSort());
+
+    // one extra row tells us whether there is a next page without a count query
+    List<TodoDto> todos =
+        todoRepository.findOwnedAndSharedTodosPage(personId, filter, cursor, TODO_PAGE_SIZE + 1);
+
+    if (todos.size() <= TODO_PAGE_SIZE) {
+      return new DashboardPage(todos, null);
+    }
+
+    List<TodoDto> page = todos.subList(0, TODO_PAGE_SIZE);
+    return new DashboardPage(
+        page, DashboardCursor.after(filter.getSort(), page.get(TODO_PAGE_SIZE - 1)).encode());
+  }
 
-    return ownedTodos;
+  private static String toLikePrefix(String query) {
+    String prefix = query == null ? "" : query.strip().toLowerCase(Locale.ROOT);
+    return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
   }
 }
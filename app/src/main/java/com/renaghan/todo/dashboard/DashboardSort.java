@@ -0,0 +1,7 @@
+package com.renaghan.todo.dashboard;
+
+public enum DashboardSort {
+  ID,
+  DUE_DATE,
+  PRIORITY
+}
@@ -1,24 +1,32 @@
 package com.renaghan.todo.dashboard;
 
-import com.renaghan.todo.todo.Todo;
-
+import com.renaghan.todo.todo.Priority;
 import java.time.LocalDate;
 
 public class TodoDto {
 
-  private Long id;
-  private String title;
-  private int amountOfCollaborators;
-  private int amountOfCollaborationRequests;
-  private LocalDate dueDate;
-  private boolean isCollaboration;
-
-  public TodoDto(Todo todo, boolean isCollaboration) {
-    this.id = todo.getId();
-    this.title = todo.getTitle();
-    this.amountOfCollaborationRequests = todo.getCollaborationRequests().size();
-    this.amountOfCollaborators = todo.getCollaborators().size();
-    this.dueDate = todo.getDueDate();
+  private final Long id;
+  private final String title;
+  private final int amountOfCollaborators;
+  private final int amountOfCollaborationRequests;
+  private final LocalDate dueDate;
+  private final Priority priority;
+  private final boolean isCollaboration;
+
+  public TodoDto(
+      Long id,
+      String title,
+      int amountOfCollaborators,
+      int amountOfCollaborationRequests,
+      LocalDate dueDate,
+      Priority priority,
+      boolean isCollaboration) {
+    this.id = id;
+    this.title = title;
+    this.amountOfCollaborators = amountOfCollaborators;
+    this.amountOfCollaborationRequests = amountOfCollaborationRequests;
+    this.dueDate = dueDate;
+    this.priority = priority;
     this.isCollaboration = isCollaboration;
   }
 
@@ -42,6 +50,10 @@ public class TodoDto {
     return dueDate;
   }
 
+  public Priority getPriority() {
+    return priority;
+  }
+
   public boolean isCollaboration() {
     return isCollaboration;
   }
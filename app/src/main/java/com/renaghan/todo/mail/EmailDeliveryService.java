@@ -0,0 +1,237 @@
+package com.renaghan.todo.mail;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.MailSender;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.ses.SesClient;
+
+/**
+ * Sends emails on a bounded pool, never faster than the SES send rate. Throttled and transient
+ * failures are retried with exponential backoff; the retry waits on the task scheduler and holds
+ * no pool thread. Sends are never run on the submitting thread, which may be a scheduler thread:
+ * when the pool queue is full or the service shuts down, the send fails and the message behind it
+ * is redelivered. SQS listeners bound their in-flight messages, so the queue only fills up when
+ * emails are sent faster than the listeners receive them.
+ */
+@Service
+public class EmailDeliveryService implements DisposableBean {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EmailDeliveryService.class);
+
+  private final MailSender mailSender;
+  private final TaskScheduler taskScheduler;
+  private final MeterRegistry meterRegistry;
+  private final ThreadPoolExecutor sendPool;
+  private final TokenBucket rateLimiter;
+  private final int maxAttempts;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+  private final Counter sent;
+  private final Counter retried;
+  private final Counter failed;
+
+  public EmailDeliveryService(
+      MailSender mailSender,
+      TaskScheduler taskScheduler,
+      MeterRegistry meterRegistry,
+      ObjectProvider<SesClient> sesClient,
+      @Value("${custom.email-delivery.rate-per-second:0}") double ratePerSecond,
+      @Value("${custom.email-delivery.pool-size:4}") int poolSize,
+      @Value("${custom.email-delivery.queue-capacity:500}") int queueCapacity,
+      @Value("${custom.email-delivery.max-attempts:5}") int maxAttempts,
+      @Value("${custom.email-delivery.initial-backoff:200ms}") Duration initialBackoff,
+      @Value("${custom.email-delivery.max-backoff:10s}") Duration maxBackoff) {
+    this.mailSender = mailSender;
+    this.taskScheduler = taskScheduler;
+    this.meterRegistry = meterRegistry;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+
+    double rate = ratePerSecond > 0 ? ratePerSecond : sesSendRate(sesClient);
+    this.rateLimiter = new TokenBucket(rate, (int) Math.ceil(rate));
+    LOG.info("Sending at most {} emails per second", rate);
+
+    AtomicInteger threadCount = new AtomicInteger();
+    this.sendPool =
+        new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              Thread thread = new Thread(runnable, "email-send-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+    this.sent =
+        Counter.builder("stratospheric.email.sent")
+            .description("Emails accepted by the mail sender")
+            .register(meterRegistry);
+    this.retried =
+        Counter.builder("stratospheric.email.retried")
+            .description("Send attempts that were throttled or failed transiently")
+            .register(meterRegistry);
+    this.failed =
+        Counter.builder("stratospheric.email.failed")
+            .description("Emails given up on")
+            .register(meterRegistry);
+    Gauge.builder("stratospheric.email.queued", sendPool, pool -> pool.getQueue().size())
+        .description("Emails waiting for a send thread")
+        .register(meterRegistry);
+  }
+
+  /** Completes once the email was sent, or exceptionally once all attempts failed. */
+  public CompletableFuture<Void> send(SimpleMailMessage message) {
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    Timer.Sample sample = Timer.start(meterRegistry);
+    submit(message, 1, result);
+
+    return result.whenComplete(
+        (ignored, e) ->
+            sample.stop(
+                Timer.builder("stratospheric.email.delivery")
+                    .description("Time from submission until the email was sent or given up")
+                    .tag("outcome", e == null ? "success" : "failure")
+                    .register(meterRegistry)));
+  }
+
+  /** Sends still queued after the grace period fail, so no caller waits on them forever. */
+  @Override
+  public void destroy() throws InterruptedException {
+    sendPool.shutdown();
+    if (!sendPool.awaitTermination(10, TimeUnit.SECONDS)) {
+      for (Runnable unsent : sendPool.shutdownNow()) {
+        ((SendAttempt) unsent).result.completeExceptionally(
+            new RejectedExecutionException("Email delivery shut down"));
+      }
+    }
+  }
+
+  private void submit(SimpleMailMessage message, int attempt, CompletableFuture<Void> result) {
+    try {
+      sendPool.execute(new SendAttempt(message, attempt, result));
+    } catch (RejectedExecutionException e) {
+      LOG.warn(
+          "Could not queue email to {}, the send pool is full or shut down",
+          Arrays.toString(message.getTo()));
+      failed.increment();
+      result.completeExceptionally(e);
+    }
+  }
+
+  private void attempt(SimpleMailMessage message, int attempt, CompletableFuture<Void> result) {
+    try {
+      rateLimiter.acquire();
+      mailSender.send(message);
+      sent.increment();
+      result.complete(null);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      result.completeExceptionally(e);
+    } catch (RuntimeException e) {
+      if (attempt < maxAttempts && isRetryable(e)) {
+        Duration backoff = backoff(attempt);
+        LOG.info(
+            "Sending email to {} failed on attempt {}, retrying in {}",
+            Arrays.toString(message.getTo()),
+            attempt,
+            backoff);
+        retried.increment();
+        try {
+          taskScheduler.schedule(
+              () -> submit(message, attempt + 1, result), Instant.now().plus(backoff));
+        } catch (RuntimeException rejected) {
+          failed.increment();
+          result.completeExceptionally(e);
+        }
+      } else {
+        failed.increment();
+        result.completeExceptionally(e);
+      }
+    }
+  }
+
+  // keeps the result reachable, so destroy() can fail sends that never ran
+  private final class SendAttempt implements Runnable {
+
+    private final SimpleMailMessage message;
+    private final int attempt;
+    private final CompletableFuture<Void> result;
+
+    private SendAttempt(SimpleMailMessage message, int attempt, CompletableFuture<Void> result) {
+      this.message = message;
+      this.attempt = attempt;
+      this.result = result;
+    }
+
+    @Override
+    public void run() {
+      attempt(message, attempt, result);
+    }
+  }
+
+  // exponential with jitter, so throttled senders don't retry in lockstep
+  private Duration backoff(int attempt) {
+    long millis =
+        Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+    return Duration.ofMillis(millis / 2 + ThreadLocalRandom.current().nextLong(millis / 2 + 1));
+  }
+
+  private static boolean isRetryable(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof AwsServiceException serviceException
+          && serviceException.isThrottlingException()) {
+        return true;
+      }
+      if (cause instanceof SdkClientException) {
+        return true;
+      }
+      if (cause instanceof MailSendException mailSendException
+          && mailSendException.getFailedMessages().values().stream()
+              .anyMatch(EmailDeliveryService::isRetryable)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static double sesSendRate(ObjectProvider<SesClient> sesClient) {
+    try {
+      SesClient client = sesClient.getIfAvailable();
+      double maxSendRate = client == null ? 0 : client.getSendQuota().maxSendRate();
+      if (maxSendRate > 0) {
+        return maxSendRate;
+      }
+    } catch (RuntimeException e) {
+      LOG.warn("Could not read the SES send quota, sending one email per second", e);
+    }
+    return 1;
+  }
+}
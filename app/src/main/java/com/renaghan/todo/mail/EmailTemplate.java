@@ -0,0 +1,55 @@
+package com.renaghan.todo.mail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A text with {@code {name}} placeholders, split into literals and placeholders once so rendering
+ * is a single pass of appends.
+ */
+public class EmailTemplate {
+
+  private final List<String> literals;
+  private final List<String> placeholders;
+  private final int estimatedLength;
+
+  private EmailTemplate(List<String> literals, List<String> placeholders, int estimatedLength) {
+    this.literals = literals;
+    this.placeholders = placeholders;
+    this.estimatedLength = estimatedLength;
+  }
+
+  public static EmailTemplate compile(String template) {
+    List<String> literals = new ArrayList<>();
+    List<String> placeholders = new ArrayList<>();
+
+    int position = 0;
+    int start;
+    while ((start = template.indexOf('{', position)) >= 0) {
+      int end = template.indexOf('}', start);
+      if (end < 0) {
+        throw new IllegalArgumentException("Unclosed placeholder at " + start + ": " + template);
+      }
+      literals.add(template.substring(position, start));
+      placeholders.add(template.substring(start + 1, end));
+      position = end + 1;
+    }
+    literals.add(template.substring(position));
+
+    return new EmailTemplate(
+        List.copyOf(literals), List.copyOf(placeholders), template.length() + 64);
+  }
+
+  public String render(Map<String, ?> values) {
+    StringBuilder text = new StringBuilder(estimatedLength);
+    for (int i = 0; i < placeholders.size(); i++) {
+      String name = placeholders.get(i);
+      if (!values.containsKey(name)) {
+        throw new IllegalArgumentException("No value for placeholder: " + name);
+      }
+      text.append(literals.get(i)).append(values.get(name));
+    }
+    return text.append(literals.get(placeholders.size())).toString();
+  }
+}
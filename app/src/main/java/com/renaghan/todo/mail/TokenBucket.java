@@ -0,0 +1,42 @@
+package com.renaghan.todo.mail;
+
+import java.util.concurrent.TimeUnit;
+
+/** Permits {@code ratePerSecond} acquisitions per second on average and bursts of {@code burst}. */
+class TokenBucket {
+
+  private final double capacity;
+  private final double tokensPerNano;
+
+  private double tokens;
+  private long lastRefill;
+
+  TokenBucket(double ratePerSecond, int burst) {
+    this.capacity = Math.max(1, burst);
+    this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+    this.tokens = capacity;
+    this.lastRefill = System.nanoTime();
+  }
+
+  /** Blocks until a token is available. */
+  void acquire() throws InterruptedException {
+    while (true) {
+      long waitNanos;
+      synchronized (this) {
+        refill();
+        if (tokens >= 1) {
+          tokens -= 1;
+          return;
+        }
+        waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+      }
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+  }
+
+  private void refill() {
+    long now = System.nanoTime();
+    tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+    lastRefill = now;
+  }
+}
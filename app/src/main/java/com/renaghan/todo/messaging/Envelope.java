@@ -0,0 +1,40 @@
+package com.renaghan.todo.messaging;
+
+import org.springframework.messaging.Message;
+
+/** A message on its way through the {@link InProcessMessageBroker}. */
+final class Envelope {
+
+  private final long id;
+  private final String destination;
+  private final Message<?> message;
+  private final long sentAtNanos;
+  private int attempts;
+
+  Envelope(long id, String destination, Message<?> message) {
+    this.id = id;
+    this.destination = destination;
+    this.message = message;
+    this.sentAtNanos = System.nanoTime();
+  }
+
+  long getId() {
+    return id;
+  }
+
+  String getDestination() {
+    return destination;
+  }
+
+  Message<?> getMessage() {
+    return message;
+  }
+
+  long getSentAtNanos() {
+    return sentAtNanos;
+  }
+
+  int incrementAttempts() {
+    return ++attempts;
+  }
+}
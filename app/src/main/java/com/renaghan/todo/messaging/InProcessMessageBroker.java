@@ -0,0 +1,295 @@
+package com.renaghan.todo.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.messaging.Message;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers messages to {@link InProcessSubscription}s in the same JVM instead of sending them
+ * through SQS. Senders put messages into a bounded {@link RingBuffer}, a full buffer fails the
+ * send just like an unavailable queue. Worker threads block while the buffer is empty, take the
+ * messages out and hand them to the subscription of their destination, at most {@code
+ * max-in-flight} at a time. Failed messages are
+ * delivered again after {@code redelivery-delay}, up to {@code max-attempts} times.
+ *
+ * <p>Without {@code custom.messaging.in-process.journal} the messages in the buffer are lost when
+ * the JVM stops, with it they are recovered from the {@link MessageJournal} on the next start.
+ */
+@Component
+@ConditionalOnProperty(value = "custom.messaging.backend", havingValue = "in-process")
+public class InProcessMessageBroker implements MessageSender, SmartLifecycle {
+
+  private static final Logger LOG = LoggerFactory.getLogger(InProcessMessageBroker.class);
+
+  // only while recovering a journal larger than the buffer
+  private static final long RECOVERY_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final Map<String, InProcessSubscription> subscriptions;
+  private final TaskScheduler taskScheduler;
+  private final RingBuffer<Envelope> buffer;
+  private final MessageJournal journal;
+  private final Semaphore inFlight;
+  // one permit per message in the buffer, idle workers wait on it instead of polling
+  private final Semaphore available = new Semaphore(0);
+  private final int workerCount;
+  private final int maxAttempts;
+  private final Duration redeliveryDelay;
+  private final AtomicLong nextId = new AtomicLong();
+  private final List<Thread> workers = new ArrayList<>();
+
+  private final Counter sent;
+  private final Counter rejected;
+  private final Counter delivered;
+  private final Counter redelivered;
+  private final Counter deadLettered;
+  private final Timer latency;
+
+  private volatile boolean running;
+
+  public InProcessMessageBroker(
+      List<InProcessSubscription> subscriptions,
+      TaskScheduler taskScheduler,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry,
+      @Value("${custom.messaging.in-process.capacity:1024}") int capacity,
+      @Value("${custom.messaging.in-process.workers:2}") int workerCount,
+      @Value("${custom.messaging.in-process.max-in-flight:10}") int maxInFlight,
+      @Value("${custom.messaging.in-process.max-attempts:5}") int maxAttempts,
+      @Value("${custom.messaging.in-process.redelivery-delay:30s}") Duration redeliveryDelay,
+      @Value("${custom.messaging.in-process.journal:}") String journal) {
+    this.subscriptions =
+        subscriptions.stream()
+            .collect(
+                Collectors.toMap(InProcessSubscription::getDestination, Function.identity()));
+    this.taskScheduler = taskScheduler;
+    this.buffer = new RingBuffer<>(capacity);
+    this.journal = journal.isBlank() ? null : new MessageJournal(Path.of(journal), objectMapper);
+    this.inFlight = new Semaphore(maxInFlight);
+    this.workerCount = workerCount;
+    this.maxAttempts = maxAttempts;
+    this.redeliveryDelay = redeliveryDelay;
+
+    this.sent =
+        Counter.builder("stratospheric.messaging.in-process.sent")
+            .description("Messages accepted by the in-process ring buffer")
+            .register(meterRegistry);
+    this.rejected =
+        Counter.builder("stratospheric.messaging.in-process.rejected")
+            .description("Messages rejected because the ring buffer was full")
+            .register(meterRegistry);
+    this.delivered =
+        Counter.builder("stratospheric.messaging.in-process.delivered")
+            .description("Messages their subscription processed successfully")
+            .register(meterRegistry);
+    this.redelivered =
+        Counter.builder("stratospheric.messaging.in-process.redelivered")
+            .description("Failed messages scheduled for another delivery")
+            .register(meterRegistry);
+    this.deadLettered =
+        Counter.builder("stratospheric.messaging.in-process.dead-lettered")
+            .description("Messages dropped after their last failed delivery")
+            .register(meterRegistry);
+    this.latency =
+        Timer.builder("stratospheric.messaging.in-process.latency")
+            .description("Time from sending a message until its subscription completed")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+    Gauge.builder("stratospheric.messaging.in-process.depth", buffer, RingBuffer::size)
+        .description("Messages waiting in the ring buffer")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public <T> void sendMany(String destination, Collection<Message<T>> messages) {
+    if (!subscriptions.containsKey(destination)) {
+      throw new IllegalArgumentException("No in-process subscription for " + destination);
+    }
+    List<Envelope> envelopes = new ArrayList<>(messages.size());
+    for (Message<T> message : messages) {
+      envelopes.add(new Envelope(nextId.getAndIncrement(), destination, message));
+    }
+    // journaled first, a message the workers complete is always on disk before its ack
+    if (journal != null) {
+      journal.append(envelopes);
+    }
+    for (int i = 0; i < envelopes.size(); i++) {
+      if (!offer(envelopes.get(i))) {
+        List<Envelope> notAccepted = envelopes.subList(i, envelopes.size());
+        rejected.increment(notAccepted.size());
+        if (journal != null) {
+          notAccepted.forEach(envelope -> journal.acknowledge(envelope.getId()));
+        }
+        throw new IllegalStateException(
+            "In-process queue full, " + notAccepted.size() + " messages for " + destination);
+      }
+      sent.increment();
+    }
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    for (int i = 0; i < workerCount; i++) {
+      Thread worker = new Thread(this::work, "in-process-messaging-" + i);
+      worker.setDaemon(true);
+      worker.start();
+      workers.add(worker);
+    }
+
+    if (journal != null) {
+      List<Envelope> recovered = journal.recover();
+      recovered.stream()
+          .mapToLong(Envelope::getId)
+          .max()
+          .ifPresent(maxId -> nextId.set(maxId + 1));
+      // the workers drain the buffer meanwhile, so this only waits for a larger backlog
+      recovered.forEach(this::offerWaiting);
+      if (!recovered.isEmpty()) {
+        LOG.info("Recovered {} in-process messages from the journal", recovered.size());
+      }
+    }
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    // wakes every idle worker, subscriptions running on a worker are not interrupted
+    available.release(workers.size());
+    for (Thread worker : workers) {
+      try {
+        worker.join(Duration.ofSeconds(5).toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    workers.clear();
+    int left = buffer.size();
+    if (left > 0) {
+      LOG.warn(
+          "Stopped with {} in-process messages left, {}",
+          left,
+          journal == null ? "they are lost" : "they are recovered from the journal");
+    }
+    if (journal != null) {
+      journal.close();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  // stops after the listeners and schedulers sending into it
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 1;
+  }
+
+  private void work() {
+    while (true) {
+      available.acquireUninterruptibly();
+      if (!running) {
+        return;
+      }
+      // a permit is released only after its message was offered, so the poll finds one
+      Envelope envelope = buffer.poll();
+      inFlight.acquireUninterruptibly();
+      deliver(envelope);
+    }
+  }
+
+  private boolean offer(Envelope envelope) {
+    if (!buffer.offer(envelope)) {
+      return false;
+    }
+    available.release();
+    return true;
+  }
+
+  private void deliver(Envelope envelope) {
+    CompletableFuture<Void> result;
+    try {
+      result = subscriptions.get(envelope.getDestination()).handle(envelope.getMessage());
+    } catch (RuntimeException e) {
+      result = CompletableFuture.failedFuture(e);
+    }
+    result.whenComplete(
+        (ignored, e) -> {
+          inFlight.release();
+          if (e == null) {
+            delivered.increment();
+            latency.record(System.nanoTime() - envelope.getSentAtNanos(), TimeUnit.NANOSECONDS);
+            acknowledge(envelope);
+          } else {
+            failed(envelope, e);
+          }
+        });
+  }
+
+  private void failed(Envelope envelope, Throwable e) {
+    int attempts = envelope.incrementAttempts();
+    if (attempts >= maxAttempts) {
+      LOG.error(
+          "Dropping in-process message {} for {} after {} attempts",
+          envelope.getId(),
+          envelope.getDestination(),
+          attempts,
+          e);
+      deadLettered.increment();
+      acknowledge(envelope);
+      return;
+    }
+    LOG.warn(
+        "Delivery {} of in-process message {} for {} failed, retrying in {}",
+        attempts,
+        envelope.getId(),
+        envelope.getDestination(),
+        redeliveryDelay,
+        e);
+    redelivered.increment();
+    taskScheduler.schedule(() -> redeliver(envelope), Instant.now().plus(redeliveryDelay));
+  }
+
+  private void redeliver(Envelope envelope) {
+    if (!offer(envelope)) {
+      taskScheduler.schedule(() -> redeliver(envelope), Instant.now().plus(redeliveryDelay));
+    }
+  }
+
+  private void acknowledge(Envelope envelope) {
+    if (journal != null) {
+      journal.acknowledge(envelope.getId());
+    }
+  }
+
+  private void offerWaiting(Envelope envelope) {
+    while (!offer(envelope)) {
+      LockSupport.parkNanos(RECOVERY_BACKOFF_NANOS);
+    }
+  }
+}
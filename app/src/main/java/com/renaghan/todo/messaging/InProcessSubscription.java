@@ -0,0 +1,47 @@
+package com.renaghan.todo.messaging;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import org.springframework.messaging.Message;
+
+/**
+ * Consumer of one queue for the {@link InProcessMessageBroker}, the in-process counterpart of an
+ * {@code @SqsListener}. The message counts as processed once the returned future completes.
+ */
+public class InProcessSubscription {
+
+  private final String destination;
+  private final Class<?> payloadType;
+  private final Function<Message<?>, CompletableFuture<Void>> handler;
+
+  private InProcessSubscription(
+      String destination,
+      Class<?> payloadType,
+      Function<Message<?>, CompletableFuture<Void>> handler) {
+    this.destination = destination;
+    this.payloadType = payloadType;
+    this.handler = handler;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> InProcessSubscription of(
+      String destination,
+      Class<T> payloadType,
+      Function<Message<T>, CompletableFuture<Void>> handler) {
+    return new InProcessSubscription(
+        destination, payloadType, message -> handler.apply((Message<T>) message));
+  }
+
+  public String getDestination() {
+    return destination;
+  }
+
+  CompletableFuture<Void> handle(Message<?> message) {
+    if (!payloadType.isInstance(message.getPayload())) {
+      return CompletableFuture.failedFuture(
+          new IllegalArgumentException(
+              "Expected a " + payloadType.getName() + " on " + destination + ": " + message));
+    }
+    return handler.apply(message);
+  }
+}
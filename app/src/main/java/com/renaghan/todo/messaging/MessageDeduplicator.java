@@ -0,0 +1,105 @@
+package com.renaghan.todo.messaging;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Lets each message id be processed once. Ids are recorded in PROCESSED_MESSAGE only after their
+ * processing succeeded, so a crash or shutdown in between leads to a redelivery that is processed
+ * again: a rare duplicate instead of a lost message. Recently processed ids are rejected from
+ * memory, others are looked up by primary key, which also catches duplicates that were processed
+ * on another node. Ids are kept for {@code custom.message-deduplication.retention}, which has to
+ * outlast the SQS retention period.
+ */
+@Service
+@Transactional
+public class MessageDeduplicator {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MessageDeduplicator.class);
+
+  private static final int CLEANUP_BATCH_SIZE = 10_000;
+
+  private final ProcessedMessageRepository processedMessageRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final MeterRegistry meterRegistry;
+  private final Duration retention;
+  private final Cache<String, Boolean> recentlyProcessed;
+
+  public MessageDeduplicator(
+      ProcessedMessageRepository processedMessageRepository,
+      TransactionTemplate transactionTemplate,
+      MeterRegistry meterRegistry,
+      @Value("${custom.message-deduplication.maximum-size:100000}") long maximumSize,
+      @Value("${custom.message-deduplication.retention:14d}") Duration retention) {
+    this.processedMessageRepository = processedMessageRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.meterRegistry = meterRegistry;
+    this.retention = retention;
+    this.recentlyProcessed =
+        Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(retention)
+            .recordStats()
+            .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, recentlyProcessed, "message-deduplication");
+  }
+
+  /** Returns true for a duplicate, which must then be acknowledged without processing. */
+  public boolean isProcessed(String messageId) {
+    if (recentlyProcessed.getIfPresent(messageId) != null) {
+      countDuplicate("memory");
+      return true;
+    }
+    if (processedMessageRepository.existsById(messageId)) {
+      recentlyProcessed.put(messageId, Boolean.TRUE);
+      countDuplicate("database");
+      return true;
+    }
+    return false;
+  }
+
+  /** Call once the message's side effects are done, e.g. after its email was sent. */
+  public void markProcessed(String messageId) {
+    processedMessageRepository.insertIfAbsent(messageId);
+    recentlyProcessed.put(messageId, Boolean.TRUE);
+  }
+
+  // one transaction per batch, so the cleanup never holds locks on a large part of the table
+  @Scheduled(cron = "${custom.message-deduplication.cleanup-cron:0 17 * * * *}")
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void deleteExpiredClaims() {
+    LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+    int deleted = 0;
+    int batch;
+    do {
+      batch =
+          transactionTemplate.execute(
+              status ->
+                  processedMessageRepository.deleteProcessedBefore(cutoff, CLEANUP_BATCH_SIZE));
+      deleted += batch;
+    } while (batch == CLEANUP_BATCH_SIZE);
+
+    if (deleted > 0) {
+      LOG.info("Deleted {} expired processed message ids", deleted);
+    }
+  }
+
+  private void countDuplicate(String detectedIn) {
+    meterRegistry
+        .counter("stratospheric.messaging.duplicates", "detected-in", detectedIn)
+        .increment();
+  }
+}
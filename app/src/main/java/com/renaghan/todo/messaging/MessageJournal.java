@@ -0,0 +1,173 @@
+package com.renaghan.todo.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+/**
+ * Append-only file of the messages in the {@link InProcessMessageBroker}, one JSON line per sent
+ * message and one per acknowledged message id. Sent messages are forced to disk before the send
+ * returns, acknowledgements are not: after a crash a message is delivered again rather than lost.
+ * The file is truncated whenever no message is outstanding and rewritten on recovery.
+ */
+final class MessageJournal {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MessageJournal.class);
+
+  // truncating is a metadata write, only worth it once the file has grown
+  private static final long COMPACTION_THRESHOLD_BYTES = 1024 * 1024;
+
+  private final Path path;
+  private final ObjectMapper objectMapper;
+  private FileChannel channel;
+  private long outstanding;
+
+  MessageJournal(Path path, ObjectMapper objectMapper) {
+    this.path = path;
+    this.objectMapper = objectMapper;
+  }
+
+  /** Returns the messages that were never acknowledged and rewrites the file to hold only them. */
+  synchronized List<Envelope> recover() {
+    try {
+      if (path.getParent() != null) {
+        Files.createDirectories(path.getParent());
+      }
+      Map<Long, Envelope> unacknowledged = new LinkedHashMap<>();
+      Set<Long> acknowledged = new HashSet<>();
+      if (Files.exists(path)) {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+          String line;
+          while ((line = reader.readLine()) != null) {
+            readLine(line, unacknowledged, acknowledged);
+          }
+        }
+      }
+      acknowledged.forEach(unacknowledged::remove);
+      List<Envelope> recovered = new ArrayList<>(unacknowledged.values());
+
+      Path rewritten = path.resolveSibling(path.getFileName() + ".tmp");
+      try (FileChannel out =
+          FileChannel.open(
+              rewritten,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.WRITE,
+              StandardOpenOption.TRUNCATE_EXISTING)) {
+        for (Envelope envelope : recovered) {
+          write(out, sentLine(envelope));
+        }
+        out.force(true);
+      }
+      Files.move(
+          rewritten, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+      channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+      outstanding = recovered.size();
+      return recovered;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not recover message journal " + path, e);
+    }
+  }
+
+  synchronized void append(List<Envelope> envelopes) {
+    try {
+      for (Envelope envelope : envelopes) {
+        write(channel, sentLine(envelope));
+      }
+      channel.force(false);
+      outstanding += envelopes.size();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not append to message journal " + path, e);
+    }
+  }
+
+  synchronized void acknowledge(long id) {
+    try {
+      write(channel, objectMapper.createObjectNode().put("ack", id).toString());
+      outstanding--;
+      if (outstanding == 0 && channel.size() > COMPACTION_THRESHOLD_BYTES) {
+        channel.truncate(0);
+      }
+    } catch (IOException e) {
+      // the message is delivered again after a restart, which consumers have to handle anyway
+      LOG.warn("Could not acknowledge message {} in journal {}", id, path, e);
+    }
+  }
+
+  synchronized void close() {
+    try {
+      if (channel != null) {
+        channel.close();
+      }
+    } catch (IOException e) {
+      LOG.warn("Could not close message journal {}", path, e);
+    }
+  }
+
+  private String sentLine(Envelope envelope) throws JsonProcessingException {
+    Message<?> message = envelope.getMessage();
+    ObjectNode line = objectMapper.createObjectNode();
+    line.put("id", envelope.getId());
+    line.put("destination", envelope.getDestination());
+    line.put("type", message.getPayload().getClass().getName());
+    ObjectNode headers = line.putObject("headers");
+    // the id and timestamp headers are regenerated, only application headers are strings
+    message.getHeaders().forEach(
+        (name, value) -> {
+          if (value instanceof String string) {
+            headers.put(name, string);
+          }
+        });
+    line.put("payload", objectMapper.writeValueAsString(message.getPayload()));
+    return line.toString();
+  }
+
+  private void readLine(String line, Map<Long, Envelope> sent, Set<Long> acknowledged) {
+    try {
+      JsonNode node = objectMapper.readTree(line);
+      if (node.has("ack")) {
+        acknowledged.add(node.get("ack").asLong());
+        return;
+      }
+      Object payload =
+          objectMapper.readValue(
+              node.get("payload").asText(), Class.forName(node.get("type").asText()));
+      MessageBuilder<Object> message = MessageBuilder.withPayload(payload);
+      node.get("headers").fields().forEachRemaining(
+          header -> message.setHeader(header.getKey(), header.getValue().asText()));
+      long id = node.get("id").asLong();
+      sent.put(id, new Envelope(id, node.get("destination").asText(), message.build()));
+    } catch (IOException | ClassNotFoundException | RuntimeException e) {
+      // most likely the last line of a crash in the middle of a write
+      LOG.error("Skipping unreadable message journal line: {}", line, e);
+    }
+  }
+
+  private static void write(FileChannel target, String line) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+    while (buffer.hasRemaining()) {
+      target.write(buffer);
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package com.renaghan.todo.messaging;
+
+import java.util.Collection;
+import org.springframework.messaging.Message;
+
+/**
+ * Sends messages to a queue. Backed by SQS, or with {@code custom.messaging.backend: in-process}
+ * by {@link InProcessMessageBroker} on single-node deployments.
+ */
+public interface MessageSender {
+
+  /**
+   * Throws if a message was not accepted. Messages accepted before may still be delivered, so the
+   * caller's retry can deliver them twice, the same as a partially failed SQS batch.
+   */
+  <T> void sendMany(String destination, Collection<Message<T>> messages);
+}
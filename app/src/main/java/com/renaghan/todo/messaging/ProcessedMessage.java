@@ -0,0 +1,21 @@
+package com.renaghan.todo.messaging;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import java.time.LocalDateTime;
+
+@Entity
+public class ProcessedMessage {
+
+  @Id private String messageId;
+
+  private LocalDateTime processedAt;
+
+  public String getMessageId() {
+    return messageId;
+  }
+
+  public LocalDateTime getProcessedAt() {
+    return processedAt;
+  }
+}
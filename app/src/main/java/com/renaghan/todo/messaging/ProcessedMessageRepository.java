@@ -0,0 +1,34 @@
+package com.renaghan.todo.messaging;
+
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+public interface ProcessedMessageRepository extends JpaRepository<ProcessedMessage, String> {
+
+  /** Returns 0 if the message id was recorded before. */
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "processed_message"))
+  @Query(
+      value =
+          "insert into processed_message (message_id, processed_at)"
+              + " values (:messageId, localtimestamp) on conflict do nothing",
+      nativeQuery = true)
+  int insertIfAbsent(@Param("messageId") String messageId);
+
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "processed_message"))
+  @Query(
+      value =
+          """
+          delete from processed_message where message_id in (
+            select message_id from processed_message where processed_at < :cutoff limit :limit)
+          """,
+      nativeQuery = true)
+  int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
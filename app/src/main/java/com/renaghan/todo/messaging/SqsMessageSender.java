@@ -0,0 +1,27 @@
+package com.renaghan.todo.messaging;
+
+import io.awspring.cloud.sqs.operations.SqsTemplate;
+import java.util.Collection;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(
+    value = "custom.messaging.backend",
+    havingValue = "sqs",
+    matchIfMissing = true)
+public class SqsMessageSender implements MessageSender {
+
+  private final SqsTemplate sqsTemplate;
+
+  public SqsMessageSender(SqsTemplate sqsTemplate) {
+    this.sqsTemplate = sqsTemplate;
+  }
+
+  @Override
+  public <T> void sendMany(String destination, Collection<Message<T>> messages) {
+    // SqsTemplate throws when a batch entry failed
+    sqsTemplate.sendMany(destination, messages);
+  }
+}
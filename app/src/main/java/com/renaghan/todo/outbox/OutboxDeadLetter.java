@@ -0,0 +1,79 @@
+package com.renaghan.todo.outbox;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import java.time.LocalDateTime;
+
+/** An outbox message the relay could not turn into a queue message, with the reason. */
+@Entity
+public class OutboxDeadLetter {
+
+  // the id the message had in the outbox
+  @Id private Long id;
+
+  private String destination;
+
+  private String messageGroup;
+
+  private String payloadType;
+
+  private String payload;
+
+  private String headers;
+
+  private LocalDateTime createdAt;
+
+  private LocalDateTime failedAt;
+
+  private String error;
+
+  protected OutboxDeadLetter() {}
+
+  public OutboxDeadLetter(OutboxMessage outboxMessage, Exception error) {
+    this.id = outboxMessage.getId();
+    this.destination = outboxMessage.getDestination();
+    this.messageGroup = outboxMessage.getMessageGroup();
+    this.payloadType = outboxMessage.getPayloadType();
+    this.payload = outboxMessage.getPayload();
+    this.headers = outboxMessage.getHeaders();
+    this.createdAt = outboxMessage.getCreatedAt();
+    this.failedAt = LocalDateTime.now();
+    this.error = error.toString();
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getDestination() {
+    return destination;
+  }
+
+  public String getMessageGroup() {
+    return messageGroup;
+  }
+
+  public String getPayloadType() {
+    return payloadType;
+  }
+
+  public String getPayload() {
+    return payload;
+  }
+
+  public String getHeaders() {
+    return headers;
+  }
+
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public LocalDateTime getFailedAt() {
+    return failedAt;
+  }
+
+  public String getError() {
+    return error;
+  }
+}
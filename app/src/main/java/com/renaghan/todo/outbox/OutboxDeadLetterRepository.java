@@ -0,0 +1,5 @@
+package com.renaghan.todo.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface OutboxDeadLetterRepository extends JpaRepository<OutboxDeadLetter, Long> {}
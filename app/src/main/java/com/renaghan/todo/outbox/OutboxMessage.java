@@ -0,0 +1,77 @@
+package com.renaghan.todo.outbox;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import java.time.LocalDateTime;
+
+@Entity
+public class OutboxMessage {
+
+  // ids define the delivery order, so they are not pooled per node
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_message_seq")
+  @SequenceGenerator(
+      name = "outbox_message_seq",
+      sequenceName = "outbox_message_seq",
+      allocationSize = 1)
+  private Long id;
+
+  private String destination;
+
+  private String messageGroup;
+
+  private String payloadType;
+
+  private String payload;
+
+  private String headers;
+
+  private LocalDateTime createdAt;
+
+  protected OutboxMessage() {}
+
+  public OutboxMessage(
+      String destination,
+      String messageGroup,
+      String payloadType,
+      String payload,
+      String headers) {
+    this.destination = destination;
+    this.messageGroup = messageGroup;
+    this.payloadType = payloadType;
+    this.payload = payload;
+    this.headers = headers;
+    this.createdAt = LocalDateTime.now();
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getDestination() {
+    return destination;
+  }
+
+  public String getMessageGroup() {
+    return messageGroup;
+  }
+
+  public String getPayloadType() {
+    return payloadType;
+  }
+
+  public String getPayload() {
+    return payload;
+  }
+
+  public String getHeaders() {
+    return headers;
+  }
+
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+}
@@ -0,0 +1,31 @@
+package com.renaghan.todo.outbox;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+  /**
+   * Oldest first, restricted to rows written by transactions older than every transaction still in
+   * flight. Ids are drawn at insert time, so a row with a lower id may commit after a higher one;
+   * waiting for the horizon keeps it from being overtaken. A transaction that starts after another
+   * one committed always has higher ids, so causally ordered messages leave in id order.
+   */
+  @Query(
+      value =
+          "select * from outbox_message"
+              + " where tx_id < pg_snapshot_xmin(pg_current_snapshot())"
+              + " order by id limit :limit",
+      nativeQuery = true)
+  List<OutboxMessage> findRelayable(@Param("limit") int limit);
+
+  @Query("select min(m.createdAt) from OutboxMessage m")
+  LocalDateTime findOldestCreatedAt();
+
+  /** Transaction scoped, released at commit or rollback. */
+  @Query(value = "select pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+  boolean tryAdvisoryLock(@Param("key") long key);
+}
@@ -0,0 +1,194 @@
+package com.renaghan.todo.outbox;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renaghan.todo.messaging.MessageSender;
+import io.awspring.cloud.sqs.listener.SqsHeaders;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Drains the outbox to SQS. A message is deleted only after SQS accepted it, so a crash in between
+ * sends it again: delivery is at-least-once and consumers must tolerate duplicates.
+ *
+ * <p>Messages are handed over in id order, and only once every transaction that could still commit
+ * a lower id has finished, see {@link OutboxMessageRepository#findRelayable(int)}. On a FIFO queue
+ * each message carries its message group, so SQS keeps that order per group all the way to the
+ * consumer. Standard queues may still reorder, as may the in-process backend, whose workers run
+ * messages in parallel.
+ */
+@Component
+@ConditionalOnProperty(value = "custom.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OutboxRelay.class);
+
+  // only one node relays at a time, concurrent relays would hand messages over out of order
+  private static final long RELAY_LOCK_KEY = 0x6f7574626f78L;
+
+  // SendMessageBatch accepts at most ten entries
+  private static final int SQS_BATCH_SIZE = 10;
+
+  private static final String FIFO_QUEUE_SUFFIX = ".fifo";
+
+  private static final TypeReference<Map<String, String>> HEADERS_TYPE = new TypeReference<>() {};
+
+  private final OutboxMessageRepository outboxMessageRepository;
+  private final OutboxDeadLetterRepository outboxDeadLetterRepository;
+  private final MessageSender messageSender;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+  private final Counter relayed;
+  private final Counter failed;
+  private final Counter deadLettered;
+
+  private volatile double lagSeconds = 0;
+
+  public OutboxRelay(
+      OutboxMessageRepository outboxMessageRepository,
+      OutboxDeadLetterRepository outboxDeadLetterRepository,
+      MessageSender messageSender,
+      ObjectMapper objectMapper,
+      TransactionTemplate transactionTemplate,
+      MeterRegistry meterRegistry,
+      @Value("${custom.outbox.batch-size:100}") int batchSize) {
+    this.outboxMessageRepository = outboxMessageRepository;
+    this.outboxDeadLetterRepository = outboxDeadLetterRepository;
+    this.messageSender = messageSender;
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = transactionTemplate;
+    this.batchSize = batchSize;
+
+    this.relayed =
+        Counter.builder("stratospheric.outbox.relayed")
+            .description("Outbox messages accepted by SQS")
+            .register(meterRegistry);
+    this.failed =
+        Counter.builder("stratospheric.outbox.failed")
+            .description("Outbox messages SQS did not accept, retried with the next poll")
+            .register(meterRegistry);
+    this.deadLettered =
+        Counter.builder("stratospheric.outbox.dead.lettered")
+            .description("Unreadable outbox messages moved to OUTBOX_DEAD_LETTER")
+            .register(meterRegistry);
+    Gauge.builder("stratospheric.outbox.lag", this, relay -> relay.lagSeconds)
+        .description("Age of the oldest outbox message that was not relayed yet")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+  }
+
+  @Scheduled(fixedDelayString = "${custom.outbox.poll-interval:PT1S}")
+  public void relay() {
+    int sent;
+    do {
+      sent = transactionTemplate.execute(status -> relayBatch());
+    } while (sent == batchSize);
+
+    LocalDateTime oldest = outboxMessageRepository.findOldestCreatedAt();
+    lagSeconds =
+        oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0;
+  }
+
+  private int relayBatch() {
+    if (!outboxMessageRepository.tryAdvisoryLock(RELAY_LOCK_KEY)) {
+      return 0;
+    }
+
+    List<OutboxMessage> pending = outboxMessageRepository.findRelayable(batchSize);
+    List<Long> done = new ArrayList<>(pending.size());
+    List<OutboxDeadLetter> deadLetters = new ArrayList<>();
+
+    int from = 0;
+    while (from < pending.size()) {
+      // a batch targets a single queue, so it also ends where the destination changes
+      String destination = pending.get(from).getDestination();
+      int to = from + 1;
+      while (to < pending.size()
+          && to - from < SQS_BATCH_SIZE
+          && pending.get(to).getDestination().equals(destination)) {
+        to++;
+      }
+
+      List<OutboxMessage> chunk = pending.subList(from, to);
+      List<Message<Object>> messages = new ArrayList<>(chunk.size());
+      List<Long> sendable = new ArrayList<>(chunk.size());
+      for (OutboxMessage outboxMessage : chunk) {
+        try {
+          messages.add(toMessage(outboxMessage));
+          sendable.add(outboxMessage.getId());
+        } catch (IOException | ClassNotFoundException e) {
+          // can never be sent, set aside instead of blocking every message behind it
+          LOG.error(
+              "Moving unreadable outbox message {} to the dead letters", outboxMessage.getId(), e);
+          deadLetters.add(new OutboxDeadLetter(outboxMessage, e));
+        }
+      }
+
+      try {
+        if (!messages.isEmpty()) {
+          messageSender.sendMany(destination, messages);
+        }
+      } catch (RuntimeException e) {
+        // stop here, later messages must not overtake the ones that failed
+        LOG.warn("Could not relay {} outbox messages to {}", messages.size(), destination, e);
+        failed.increment(messages.size());
+        break;
+      }
+
+      done.addAll(sendable);
+      relayed.increment(messages.size());
+      from = to;
+    }
+
+    // dead letters leave the outbox in the same transaction, even from a chunk that failed
+    if (!deadLetters.isEmpty()) {
+      outboxDeadLetterRepository.saveAll(deadLetters);
+      deadLetters.forEach(deadLetter -> done.add(deadLetter.getId()));
+      deadLettered.increment(deadLetters.size());
+    }
+    if (!done.isEmpty()) {
+      outboxMessageRepository.deleteAllByIdInBatch(done);
+    }
+    return done.size();
+  }
+
+  private Message<Object> toMessage(OutboxMessage outboxMessage)
+      throws IOException, ClassNotFoundException {
+    Object payload =
+        objectMapper.readValue(
+            outboxMessage.getPayload(), Class.forName(outboxMessage.getPayloadType()));
+    MessageBuilder<Object> message = MessageBuilder.withPayload(payload);
+    if (outboxMessage.getHeaders() != null) {
+      message.copyHeaders(objectMapper.readValue(outboxMessage.getHeaders(), HEADERS_TYPE));
+    }
+
+    if (outboxMessage.getMessageGroup() != null
+        && outboxMessage.getDestination().endsWith(FIFO_QUEUE_SUFFIX)) {
+      message.setHeader(
+          SqsHeaders.MessageSystemAttributes.SQS_MESSAGE_GROUP_ID_HEADER,
+          outboxMessage.getMessageGroup());
+      // a message relayed again within the deduplication interval is only delivered once
+      message.setHeader(
+          SqsHeaders.MessageSystemAttributes.SQS_MESSAGE_DEDUPLICATION_ID_HEADER,
+          "outbox-" + outboxMessage.getId());
+    }
+    return message.build();
+  }
+}
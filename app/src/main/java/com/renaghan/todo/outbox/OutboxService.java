@@ -0,0 +1,65 @@
+package com.renaghan.todo.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records messages in the caller's transaction, {@link OutboxRelay} sends them once committed. A
+ * rollback discards the message together with the change it announces.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+
+  private final OutboxMessageRepository outboxMessageRepository;
+  private final ObjectMapper objectMapper;
+
+  public OutboxService(
+      OutboxMessageRepository outboxMessageRepository, ObjectMapper objectMapper) {
+    this.outboxMessageRepository = outboxMessageRepository;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * The headers are sent as SQS message attributes. Messages of one group are delivered in order
+   * by a FIFO queue, the group is ignored for standard queues.
+   */
+  public void enqueue(
+      String destination, String messageGroup, Object payload, Map<String, String> headers) {
+    outboxMessageRepository.save(toOutboxMessage(destination, messageGroup, payload, headers));
+  }
+
+  /** Keeps the order of {@code payloads}, the messages are inserted as one JDBC batch. */
+  public <T> void enqueueAll(
+      String destination,
+      Function<T, String> messageGroup,
+      List<T> payloads,
+      Map<String, String> headers) {
+    outboxMessageRepository.saveAll(
+        payloads.stream()
+            .map(
+                payload ->
+                    toOutboxMessage(destination, messageGroup.apply(payload), payload, headers))
+            .toList());
+  }
+
+  private OutboxMessage toOutboxMessage(
+      String destination, String messageGroup, Object payload, Map<String, String> headers) {
+    try {
+      return new OutboxMessage(
+          destination,
+          messageGroup,
+          payload.getClass().getName(),
+          objectMapper.writeValueAsString(payload),
+          headers.isEmpty() ? null : objectMapper.writeValueAsString(headers));
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Could not serialize outbox payload: " + payload, e);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package com.renaghan.todo.person;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Resolves the email of the authenticated user to the id of its {@link Person}. Persons are never
+ * deleted and their email never changes, so resolved ids can be cached without invalidation.
+ */
+@Service
+@Transactional
+public class PersonIdentityService {
+
+  private final PersonRepository personRepository;
+  private final Cache<String, Long> personIds;
+
+  public PersonIdentityService(
+      PersonRepository personRepository,
+      MeterRegistry meterRegistry,
+      @Value("${custom.identity-cache.maximum-size:10000}") long identityCacheMaximumSize,
+      @Value("${custom.identity-cache.time-to-live:1h}") Duration identityCacheTimeToLive) {
+    this.personRepository = personRepository;
+    this.personIds =
+        Caffeine.newBuilder()
+            .maximumSize(identityCacheMaximumSize)
+            .expireAfterWrite(identityCacheTimeToLive)
+            .recordStats()
+            .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, personIds, "person-identity");
+  }
+
+  /** Unknown emails are not cached, so a person created later is found on the next call. */
+  public Optional<Long> findPersonId(String email) {
+    Long cached = personIds.getIfPresent(email);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+
+    Optional<Long> personId = personRepository.findIdByEmail(email);
+    personId.ifPresent(id -> cacheAfterCommit(email, id));
+    return personId;
+  }
+
+  /** Like {@link #findPersonId(String)}, but creates the person on first use. */
+  public long resolvePersonId(String email, String name) {
+    return findPersonId(email)
+        .orElseGet(
+            () -> {
+              // concurrent first requests race on the insert, the loser's insert is a no-op
+              personRepository.insertIfAbsent(email, name);
+              Long personId =
+                  personRepository
+                      .findIdByEmail(email)
+                      .orElseThrow(
+                          () -> new IllegalStateException("Could not create person: " + email));
+              cacheAfterCommit(email, personId);
+              return personId;
+            });
+  }
+
+  // the id may belong to a person inserted by the surrounding transaction, caching it before the
+  // commit would hand out an id that does not exist should that transaction roll back
+  private void cacheAfterCommit(String email, long personId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      personIds.put(email, personId);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            personIds.put(email, personId);
+          }
+        });
+  }
+}
@@ -1,13 +1,44 @@
 package com.renaghan.todo.person;
 
-import java.util.List;
+import com.renaghan.todo.dashboard.CollaboratorDto;
+import jakarta.persistence.QueryHint;
 import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 public interface PersonRepository extends JpaRepository<Person, Long> {
   Optional<Person> findByName(String name);
 
   Optional<Person> findByEmail(String email);
 
-  List<Person> findByEmailNot(String email);
+  @Query("select p.id from Person p where p.email = :email")
+  Optional<Long> findIdByEmail(@Param("email") String email);
+
+  // declare the touched table, otherwise native DML invalidates every second-level cache region
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "person"))
+  @Query(
+      value =
+          "insert into person (email, name) values (:email, :name)"
+              + " on conflict (email) do nothing",
+      nativeQuery = true)
+  int insertIfAbsent(@Param("email") String email, @Param("name") String name);
+
+  /** Served by the lower(NAME) text_pattern_ops index, see V003__PERSON_NAME_PREFIX_INDEX.sql */
+  @Query(
+      """
+      select new com.renaghan.todo.dashboard.CollaboratorDto(p.id, p.name)
+      from Person p
+      where lower(p.name) like :namePrefix escape '\\'
+        and p.email <> :email
+      order by lower(p.name), p.id
+      """)
+  Slice<CollaboratorDto> findCollaboratorsByNamePrefix(
+      @Param("namePrefix") String namePrefix, @Param("email") String email, Pageable pageable);
 }
@@ -0,0 +1,52 @@
+package com.renaghan.todo.reminder;
+
+import java.time.LocalDate;
+
+public class DueReminder {
+
+  private final Long id;
+  private final LocalDate dueDate;
+  private final Long todoId;
+  private final String todoTitle;
+  private final String ownerEmail;
+  private final String ownerName;
+
+  public DueReminder(
+      Long id,
+      LocalDate dueDate,
+      Long todoId,
+      String todoTitle,
+      String ownerEmail,
+      String ownerName) {
+    this.id = id;
+    this.dueDate = dueDate;
+    this.todoId = todoId;
+    this.todoTitle = todoTitle;
+    this.ownerEmail = ownerEmail;
+    this.ownerName = ownerName;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public LocalDate getDueDate() {
+    return dueDate;
+  }
+
+  public Long getTodoId() {
+    return todoId;
+  }
+
+  public String getTodoTitle() {
+    return todoTitle;
+  }
+
+  public String getOwnerEmail() {
+    return ownerEmail;
+  }
+
+  public String getOwnerName() {
+    return ownerName;
+  }
+}
@@ -0,0 +1,135 @@
+package com.renaghan.todo.reminder;
+
+import com.renaghan.todo.messaging.MessageSender;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Hands due reminders over to the reminder queue. Every node scans, claiming batches with {@code
+ * for update skip locked} so concurrent scans never pick the same reminders. A reminder is only
+ * marked dispatched once SQS accepted it, a failed send leaves it for the next scan.
+ */
+@Component
+@ConditionalOnProperty(
+    value = "custom.reminder-dispatch.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class ReminderDispatcher {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReminderDispatcher.class);
+
+  // SendMessageBatch accepts at most ten entries
+  private static final int SQS_BATCH_SIZE = 10;
+
+  private final ReminderRepository reminderRepository;
+  private final MessageSender messageSender;
+  private final TransactionTemplate transactionTemplate;
+  private final String reminderQueue;
+  private final int batchSize;
+  private final int maxBatchesPerScan;
+  private final Counter dispatched;
+  private final Counter failed;
+  private final Timer scanTimer;
+
+  private volatile double scanLagSeconds = 0;
+
+  public ReminderDispatcher(
+      ReminderRepository reminderRepository,
+      MessageSender messageSender,
+      TransactionTemplate transactionTemplate,
+      MeterRegistry meterRegistry,
+      @Value("${custom.reminder-queue}") String reminderQueue,
+      @Value("${custom.reminder-dispatch.batch-size:100}") int batchSize,
+      @Value("${custom.reminder-dispatch.max-batches-per-scan:50}") int maxBatchesPerScan) {
+    this.reminderRepository = reminderRepository;
+    this.messageSender = messageSender;
+    this.transactionTemplate = transactionTemplate;
+    this.reminderQueue = reminderQueue;
+    this.batchSize = batchSize;
+    this.maxBatchesPerScan = maxBatchesPerScan;
+
+    this.dispatched =
+        Counter.builder("stratospheric.reminder.dispatched")
+            .description("Reminders handed over to the reminder queue")
+            .register(meterRegistry);
+    this.failed =
+        Counter.builder("stratospheric.reminder.dispatch.failed")
+            .description("Reminders that could not be sent and are retried with the next scan")
+            .register(meterRegistry);
+    this.scanTimer =
+        Timer.builder("stratospheric.reminder.scan")
+            .description("Duration of a reminder scan over all its batches")
+            .register(meterRegistry);
+    Gauge.builder("stratospheric.reminder.scan.lag", this, dispatcher -> dispatcher.scanLagSeconds)
+        .description("Age of the oldest due reminder that is not dispatched yet")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+  }
+
+  @Scheduled(
+      fixedDelayString = "${custom.reminder-dispatch.poll-interval:PT30S}",
+      initialDelayString = "${custom.reminder-dispatch.poll-interval:PT30S}")
+  public void dispatchDueReminders() {
+    scanTimer.record(this::scan);
+  }
+
+  private void scan() {
+    int batches = 0;
+    int total = 0;
+    int sent;
+    // a short batch means the backlog is drained, the cap keeps one node from hogging a backlog
+    do {
+      sent = transactionTemplate.execute(status -> dispatchBatch());
+      total += sent;
+      batches++;
+    } while (sent == batchSize && batches < maxBatchesPerScan);
+
+    scanLagSeconds =
+        transactionTemplate.execute(status -> reminderRepository.findDispatchLagSeconds());
+
+    if (total > 0) {
+      LOG.info("Dispatched {} reminders in {} batches", total, batches);
+    }
+  }
+
+  private int dispatchBatch() {
+    List<DueReminder> dueReminders = reminderRepository.claimDueReminders(batchSize);
+    List<Long> sentIds = new ArrayList<>(dueReminders.size());
+
+    for (int from = 0; from < dueReminders.size(); from += SQS_BATCH_SIZE) {
+      List<DueReminder> chunk =
+          dueReminders.subList(from, Math.min(from + SQS_BATCH_SIZE, dueReminders.size()));
+      List<Message<ReminderNotification>> messages =
+          chunk.stream()
+              .map(dueReminder -> MessageBuilder.withPayload(new ReminderNotification(dueReminder)))
+              .map(MessageBuilder::build)
+              .toList();
+      try {
+        messageSender.sendMany(reminderQueue, messages);
+        chunk.forEach(dueReminder -> sentIds.add(dueReminder.getId()));
+      } catch (RuntimeException e) {
+        LOG.warn("Could not send {} reminders, retrying with the next scan", chunk.size(), e);
+        failed.increment(chunk.size());
+      }
+    }
+
+    if (!sentIds.isEmpty()) {
+      reminderRepository.markDispatched(sentIds);
+      dispatched.increment(sentIds.size());
+    }
+    return sentIds.size();
+  }
+}
@@ -0,0 +1,74 @@
+package com.renaghan.todo.reminder;
+
+import com.renaghan.todo.mail.EmailDeliveryService;
+import com.renaghan.todo.mail.EmailTemplate;
+import io.awspring.cloud.sqs.annotation.SqsListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ReminderListener {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReminderListener.class);
+
+  private static final EmailTemplate REMINDER_EMAIL =
+      EmailTemplate.compile(
+          """
+    Hi {ownerName},\s
+
+    this is your reminder for a Todo due on {dueDate}.\s
+
+    Title: {todoTitle}\s
+
+    You can find it here: {externalUrl}/todo/show/{todoId}\s
+
+    Kind regards,\s
+    Renaghan todo-app""");
+
+  private final EmailDeliveryService emailDeliveryService;
+  private final String emailFromAddress;
+  private final String externalUrl;
+  private final Counter delivered;
+
+  public ReminderListener(
+      EmailDeliveryService emailDeliveryService,
+      MeterRegistry meterRegistry,
+      @Value("${custom.confirm-email-from-address}") String emailFromAddress,
+      @Value("${custom.external-url}") String externalUrl) {
+    this.emailDeliveryService = emailDeliveryService;
+    this.emailFromAddress = emailFromAddress;
+    this.externalUrl = externalUrl;
+    this.delivered =
+        Counter.builder("stratospheric.reminder.delivered")
+            .description("Reminder emails handed over to the mail sender")
+            .register(meterRegistry);
+  }
+
+  @SqsListener(value = "${custom.reminder-queue}")
+  public CompletableFuture<Void> listenToReminderMessages(ReminderNotification payload) {
+    LOG.info("Incoming reminder {} for todo {}", payload.getReminderId(), payload.getTodoId());
+
+    Map<String, Object> values = new HashMap<>();
+    values.put("ownerName", payload.getOwnerName());
+    values.put("dueDate", payload.getDueDate());
+    values.put("todoTitle", payload.getTodoTitle());
+    values.put("externalUrl", externalUrl);
+    values.put("todoId", payload.getTodoId());
+
+    SimpleMailMessage message = new SimpleMailMessage();
+    message.setFrom(emailFromAddress);
+    message.setTo(payload.getOwnerEmail());
+    message.setSubject("Reminder: " + payload.getTodoTitle());
+    message.setText(REMINDER_EMAIL.render(values));
+
+    return emailDeliveryService.send(message).thenRun(delivered::increment);
+  }
+}
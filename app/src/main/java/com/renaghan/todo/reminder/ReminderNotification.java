@@ -0,0 +1,71 @@
+package com.renaghan.todo.reminder;
+
+public class ReminderNotification {
+
+  private Long reminderId;
+  private Long todoId;
+  private String todoTitle;
+  // ISO-8601, the plain SQS message converter has no java.time support
+  private String dueDate;
+  private String ownerEmail;
+  private String ownerName;
+
+  public ReminderNotification() {}
+
+  public ReminderNotification(DueReminder dueReminder) {
+    this.reminderId = dueReminder.getId();
+    this.todoId = dueReminder.getTodoId();
+    this.todoTitle = dueReminder.getTodoTitle();
+    this.dueDate = dueReminder.getDueDate().toString();
+    this.ownerEmail = dueReminder.getOwnerEmail();
+    this.ownerName = dueReminder.getOwnerName();
+  }
+
+  public Long getReminderId() {
+    return reminderId;
+  }
+
+  public void setReminderId(Long reminderId) {
+    this.reminderId = reminderId;
+  }
+
+  public Long getTodoId() {
+    return todoId;
+  }
+
+  public void setTodoId(Long todoId) {
+    this.todoId = todoId;
+  }
+
+  public String getTodoTitle() {
+    return todoTitle;
+  }
+
+  public void setTodoTitle(String todoTitle) {
+    this.todoTitle = todoTitle;
+  }
+
+  public String getDueDate() {
+    return dueDate;
+  }
+
+  public void setDueDate(String dueDate) {
+    this.dueDate = dueDate;
+  }
+
+  public String getOwnerEmail() {
+    return ownerEmail;
+  }
+
+  public void setOwnerEmail(String ownerEmail) {
+    this.ownerEmail = ownerEmail;
+  }
+
+  public String getOwnerName() {
+    return ownerName;
+  }
+
+  public void setOwnerName(String ownerName) {
+    this.ownerName = ownerName;
+  }
+}
@@ -0,0 +1,34 @@
+package com.renaghan.todo.reminder;
+
+import com.renaghan.todo.todo.Reminder;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+public interface ReminderRepository
+    extends JpaRepository<Reminder, Long>, ReminderRepositoryCustom {
+
+  // declare the touched table, otherwise native DML invalidates every second-level cache region
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reminder"))
+  @Query(
+      value = "update reminder set dispatched_at = localtimestamp where id in (:ids)",
+      nativeQuery = true)
+  int markDispatched(@Param("ids") Collection<Long> ids);
+
+  /** Age of the oldest due reminder that was not dispatched yet, 0 if there is none. */
+  @Query(
+      value =
+          """
+          select coalesce(extract(epoch from localtimestamp - cast(min(due_date) as timestamp)), 0)
+          from reminder
+          where dispatched_at is null and due_date <= current_date
+          """,
+      nativeQuery = true)
+  double findDispatchLagSeconds();
+}
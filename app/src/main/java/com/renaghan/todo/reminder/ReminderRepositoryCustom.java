@@ -0,0 +1,9 @@
+package com.renaghan.todo.reminder;
+
+import java.util.List;
+
+public interface ReminderRepositoryCustom {
+
+  /** Locks up to {@code limit} due reminders, skipping those already claimed by another scan. */
+  List<DueReminder> claimDueReminders(int limit);
+}
@@ -0,0 +1,53 @@
+package com.renaghan.todo.reminder;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+class ReminderRepositoryImpl implements ReminderRepositoryCustom {
+
+  // walks IDX_REMINDER_PENDING_DUE_DATE, only the reminder rows are locked
+  private static final String CLAIM_DUE_REMINDERS =
+      "select r.id, r.due_date, t.id as todo_id, t.title, p.email, p.name"
+          + " from reminder r"
+          + " join todo t on t.id = r.todo_id"
+          + " join person p on p.id = t.owner_id"
+          + " where r.dispatched_at is null and r.due_date <= current_date"
+          + " order by r.due_date, r.id"
+          + " limit :limit"
+          + " for update of r skip locked";
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<DueReminder> claimDueReminders(int limit) {
+    List<Tuple> rows =
+        entityManager
+            .createNativeQuery(CLAIM_DUE_REMINDERS, Tuple.class)
+            .setParameter("limit", limit)
+            .getResultList();
+
+    return rows.stream().map(ReminderRepositoryImpl::toDueReminder).toList();
+  }
+
+  private static DueReminder toDueReminder(Tuple row) {
+    return new DueReminder(
+        ((Number) row.get("id")).longValue(),
+        toLocalDate(row.get("due_date")),
+        ((Number) row.get("todo_id")).longValue(),
+        row.get("title", String.class),
+        row.get("email", String.class),
+        row.get("name", String.class));
+  }
+
+  private static LocalDate toLocalDate(Object value) {
+    if (value instanceof Date date) {
+      return date.toLocalDate();
+    }
+    return (LocalDate) value;
+  }
+}
@@ -0,0 +1,48 @@
+package com.renaghan.todo.todo;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.renaghan.todo.config.LagAwareReplicaDataSource;
+import java.time.Duration;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Users whose todos changed within the last replica max-lag. Their read-only work runs against
+ * the primary, so they see their own writes even if the read replica has not caught up yet.
+ */
+@Component
+public class RecentTodoWriters {
+
+  private final Cache<String, Boolean> recentWriters;
+
+  public RecentTodoWriters(
+      @Value("${custom.datasource.replica.recent-writers-maximum-size:10000}") long maximumSize,
+      @Value("${custom.datasource.replica.max-lag:5s}") Duration replicaMaxLag) {
+    this.recentWriters =
+        Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(replicaMaxLag).build();
+  }
+
+  /**
+   * Runs before any other after-commit listener, e.g. the dashboard cache eviction, so a reload
+   * racing the eviction already reads from the primary.
+   */
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @TransactionalEventListener(fallbackExecution = true)
+  public void rememberWriters(TodoChangedEvent event) {
+    event.getAffectedEmails().forEach(email -> recentWriters.put(email, Boolean.TRUE));
+  }
+
+  /** Runs read-only work for the given user, against the primary if the user wrote recently. */
+  public <T> T read(String email, Supplier<T> work) {
+    if (recentWriters.getIfPresent(email) != null) {
+      return LagAwareReplicaDataSource.readFromPrimary(work);
+    }
+
+    return work.get();
+  }
+}
@@ -10,13 +10,18 @@ import jakarta.validation.constraints.Size;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.format.annotation.DateTimeFormat;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "todo")
 public class Todo {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todo_seq")
+  @SequenceGenerator(name = "todo_seq", sequenceName = "todo_seq", allocationSize = 50)
   private Long id;
 
   @NotBlank
@@ -40,12 +45,13 @@ public class Todo {
   @JoinColumn(name = "owner_id")
   private Person owner;
 
+  // not nullable so the foreign key is part of the batched insert instead of a later update
   @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-  @JoinColumn(name = "todo_id")
+  @JoinColumn(name = "todo_id", nullable = false)
   private List<Reminder> reminders = new ArrayList<>();
 
   @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-  @JoinColumn(name = "todo_id")
+  @JoinColumn(name = "todo_id", nullable = false)
   private List<Note> notes = new ArrayList<>();
 
   @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
@@ -53,6 +59,7 @@ public class Todo {
   private List<TodoCollaborationRequest> collaborationRequests = new ArrayList<>();
 
   @ManyToMany
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "todo-collaborators")
   @JoinTable(
       name = "todo_collaboration",
       joinColumns = @JoinColumn(name = "todo_id"),
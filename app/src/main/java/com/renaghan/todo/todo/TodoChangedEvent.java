@@ -0,0 +1,29 @@
+package com.renaghan.todo.todo;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.springframework.context.ApplicationEvent;
+
+/** Published whenever a todo changes in a way that is visible on the given users' dashboards. */
+public class TodoChangedEvent extends ApplicationEvent {
+
+  private final Set<String> affectedEmails;
+
+  public TodoChangedEvent(Object source, Set<String> affectedEmails) {
+    super(source);
+
+    this.affectedEmails = affectedEmails;
+  }
+
+  public static TodoChangedEvent of(Object source, Todo todo) {
+    Set<String> emails = new HashSet<>();
+    emails.add(todo.getOwner().getEmail());
+    todo.getCollaborators().forEach(collaborator -> emails.add(collaborator.getEmail()));
+
+    return new TodoChangedEvent(source, emails);
+  }
+
+  public Set<String> getAffectedEmails() {
+    return affectedEmails;
+  }
+}
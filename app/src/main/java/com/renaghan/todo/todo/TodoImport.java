@@ -0,0 +1,86 @@
+package com.renaghan.todo.todo;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TodoImport {
+
+  @NotBlank
+  @Size(max = 30)
+  private String title;
+
+  @Size(max = 100)
+  private String description;
+
+  @NotNull private Priority priority;
+
+  // Todo checks it only at persist, after earlier chunks were committed
+  @NotNull @Future private LocalDate dueDate;
+
+  private Status status;
+
+  private List<@NotNull LocalDate> reminders = new ArrayList<>();
+
+  private List<@NotNull @Size(max = 255) String> notes = new ArrayList<>();
+
+  public String getTitle() {
+    return title;
+  }
+
+  public void setTitle(String title) {
+    this.title = title;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public void setDescription(String description) {
+    this.description = description;
+  }
+
+  public Priority getPriority() {
+    return priority;
+  }
+
+  public void setPriority(Priority priority) {
+    this.priority = priority;
+  }
+
+  public LocalDate getDueDate() {
+    return dueDate;
+  }
+
+  public void setDueDate(LocalDate dueDate) {
+    this.dueDate = dueDate;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public void setStatus(Status status) {
+    this.status = status;
+  }
+
+  public List<LocalDate> getReminders() {
+    return reminders;
+  }
+
+  public void setReminders(List<LocalDate> reminders) {
+    this.reminders = reminders;
+  }
+
+  public List<String> getNotes() {
+    return notes;
+  }
+
+  public void setNotes(List<String> notes) {
+    this.notes = notes;
+  }
+}
@@ -0,0 +1,52 @@
+package com.renaghan.todo.todo;
+
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Valid;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+@Controller
+@Validated
+@RequestMapping("/todo")
+public class TodoImportController {
+
+  private final TodoImportService todoImportService;
+
+  public TodoImportController(TodoImportService todoImportService) {
+    this.todoImportService = todoImportService;
+  }
+
+  @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseBody
+  public TodoImportResult importTodos(
+      @RequestBody List<@Valid TodoImport> todoImports, @AuthenticationPrincipal OidcUser user) {
+    return todoImportService.importTodos(todoImports, user.getEmail(), user.getAttribute("name"));
+  }
+
+  /** Element constraints of the list are checked by method validation, not by data binding. */
+  @ExceptionHandler(ConstraintViolationException.class)
+  public ResponseEntity<ProblemDetail> invalidImport(ConstraintViolationException e) {
+    ProblemDetail problem =
+        ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Invalid todo import");
+    problem.setProperty(
+        "violations",
+        e.getConstraintViolations().stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .toList());
+
+    return ResponseEntity.badRequest().body(problem);
+  }
+}
@@ -0,0 +1,20 @@
+package com.renaghan.todo.todo;
+
+public class TodoImportResult {
+
+  private final int importedTodos;
+  private final int transactions;
+
+  public TodoImportResult(int importedTodos, int transactions) {
+    this.importedTodos = importedTodos;
+    this.transactions = transactions;
+  }
+
+  public int getImportedTodos() {
+    return importedTodos;
+  }
+
+  public int getTransactions() {
+    return transactions;
+  }
+}
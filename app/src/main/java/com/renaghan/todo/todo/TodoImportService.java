@@ -0,0 +1,107 @@
+package com.renaghan.todo.todo;
+
+import com.renaghan.todo.person.Person;
+import com.renaghan.todo.person.PersonIdentityService;
+import com.renaghan.todo.person.PersonRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Imports todos in chunks, one transaction per chunk. Ids come from pooled sequences, so each
+ * chunk is flushed as ordered JDBC batches of todos, reminders and notes at commit.
+ */
+@Service
+public class TodoImportService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TodoImportService.class);
+
+  private final TodoRepository todoRepository;
+  private final PersonRepository personRepository;
+  private final PersonIdentityService personIdentityService;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final MeterRegistry meterRegistry;
+  private final int chunkSize;
+
+  public TodoImportService(
+      TodoRepository todoRepository,
+      PersonRepository personRepository,
+      PersonIdentityService personIdentityService,
+      TransactionTemplate transactionTemplate,
+      ApplicationEventPublisher eventPublisher,
+      MeterRegistry meterRegistry,
+      @Value("${custom.todo-import.chunk-size:1000}") int chunkSize) {
+    this.todoRepository = todoRepository;
+    this.personRepository = personRepository;
+    this.personIdentityService = personIdentityService;
+    this.transactionTemplate = transactionTemplate;
+    this.eventPublisher = eventPublisher;
+    this.meterRegistry = meterRegistry;
+    this.chunkSize = chunkSize;
+  }
+
+  public TodoImportResult importTodos(
+      List<TodoImport> todoImports, String ownerEmail, String ownerName) {
+    long ownerId =
+        transactionTemplate.execute(
+            status -> personIdentityService.resolvePersonId(ownerEmail, ownerName));
+
+    int transactions = 0;
+    for (int from = 0; from < todoImports.size(); from += chunkSize) {
+      List<TodoImport> chunk =
+          todoImports.subList(from, Math.min(from + chunkSize, todoImports.size()));
+
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            Person owner = personRepository.getReferenceById(ownerId);
+            todoRepository.saveAll(
+                chunk.stream().map(todoImport -> toTodo(todoImport, owner)).toList());
+          });
+      transactions++;
+    }
+
+    meterRegistry.counter("stratospheric.todo.imported").increment(todoImports.size());
+    eventPublisher.publishEvent(new TodoChangedEvent(this, Set.of(ownerEmail)));
+
+    LOG.info("Imported {} todos in {} transactions", todoImports.size(), transactions);
+
+    return new TodoImportResult(todoImports.size(), transactions);
+  }
+
+  private static Todo toTodo(TodoImport todoImport, Person owner) {
+    Todo todo = new Todo();
+    todo.setTitle(todoImport.getTitle());
+    todo.setDescription(todoImport.getDescription());
+    todo.setPriority(todoImport.getPriority());
+    todo.setDueDate(todoImport.getDueDate());
+    todo.setStatus(todoImport.getStatus() == null ? Status.OPEN : todoImport.getStatus());
+    todo.setOwner(owner);
+
+    todoImport
+        .getReminders()
+        .forEach(
+            dueDate -> {
+              Reminder reminder = new Reminder();
+              reminder.setDueDate(dueDate);
+              todo.getReminders().add(reminder);
+            });
+
+    todoImport
+        .getNotes()
+        .forEach(
+            content -> {
+              Note note = new Note();
+              note.setContent(content);
+              todo.getNotes().add(note);
+            });
+
+    return todo;
+  }
+}
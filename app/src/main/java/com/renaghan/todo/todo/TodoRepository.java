@@ -1,13 +1,33 @@
 package com.renaghan.todo.todo;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface TodoRepository extends JpaRepository<Todo, Long> {
-  List<Todo> findAllByOwnerEmailOrderByIdAsc(String email);
+public interface TodoRepository extends JpaRepository<Todo, Long>, TodoRepositoryCustom {
 
-  List<Todo> findAllByCollaboratorsEmailOrderByIdAsc(String email);
+  Optional<Todo> findByIdAndOwnerId(Long todoId, Long ownerId);
 
-  Optional<Todo> findByIdAndOwnerEmail(Long todoId, String todoOwnerEmail);
+  // collaborators are needed to skip existing ones and to evict their dashboards
+  @EntityGraph(attributePaths = "collaborators")
+  List<Todo> findAllByIdInAndOwnerId(Collection<Long> todoIds, Long ownerId);
+
+  @EntityGraph(attributePaths = "collaborators")
+  Optional<Todo> findWithCollaboratorsById(Long todoId);
+
+  boolean existsByIdAndOwnerId(Long todoId, Long ownerId);
+
+  @Query(
+      """
+      select case when count(t) > 0 then true else false end
+      from Todo t
+      where t.id = :todoId
+        and (t.owner.id = :personId
+             or exists (select 1 from t.collaborators c where c.id = :personId))
+      """)
+  boolean isOwnerOrCollaborator(@Param("todoId") Long todoId, @Param("personId") Long personId);
 }
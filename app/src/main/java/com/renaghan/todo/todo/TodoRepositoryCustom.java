@@ -0,0 +1,22 @@
+package com.renaghan.todo.todo;
+
+import com.renaghan.todo.dashboard.DashboardCursor;
+import com.renaghan.todo.dashboard.DashboardFilter;
+import com.renaghan.todo.dashboard.TodoDto;
+import java.util.List;
+
+public interface TodoRepositoryCustom {
+
+  /**
+   * Keyset page over the todos owned by or shared with the given person, ordered by the filter's
+   * sort key and then id. Returns at most {@code limit} rows starting after {@code after}.
+   */
+  List<TodoDto> findOwnedAndSharedTodosPage(
+      long personId, DashboardFilter filter, DashboardCursor after, int limit);
+
+  /**
+   * Full-text matches over title, description and notes among the todos owned by or shared with
+   * the given person, best match first.
+   */
+  List<TodoSearchHit> searchOwnedAndSharedTodos(long personId, String query, int limit, int offset);
+}
@@ -0,0 +1,198 @@
+package com.renaghan.todo.todo;
+
+import com.renaghan.todo.dashboard.DashboardCursor;
+import com.renaghan.todo.dashboard.DashboardFilter;
+import com.renaghan.todo.dashboard.DashboardSort;
+import com.renaghan.todo.dashboard.TodoDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class TodoRepositoryImpl implements TodoRepositoryCustom {
+
+  private static final String OWNED_TODOS =
+      "select t.id, t.title, t.due_date, t.priority, false as collaboration"
+          + " from todo t"
+          + " where t.owner_id = :personId";
+
+  private static final String SHARED_TODOS =
+      "select t.id, t.title, t.due_date, t.priority, true as collaboration"
+          + " from todo_collaboration tc join todo t on t.id = tc.todo_id"
+          + " where tc.collaborator_id = :personId";
+
+  // restricts to the caller's todos first, so the cost follows the number of accessible todos and
+  // not the table size; note matches are found through NOTE(TODO_ID) and weigh half a todo match
+  private static final String SEARCH_TODOS =
+      "with search as (select websearch_to_tsquery('english', :query) as q),"
+          + " accessible as ("
+          + "   select t.id, false as collaboration from todo t where t.owner_id = :personId"
+          + "   union"
+          + "   select tc.todo_id, true from todo_collaboration tc"
+          + "   where tc.collaborator_id = :personId)"
+          + " select t.id, t.title, t.description, t.due_date, a.collaboration,"
+          + "   ts_rank(t.search_vector, s.q)"
+          + "   + 0.5 * coalesce((select max(ts_rank(n.search_vector, s.q)) from note n"
+          + "                     where n.todo_id = t.id and n.search_vector @@ s.q), 0) as rank"
+          + " from accessible a"
+          + " join todo t on t.id = a.id"
+          + " cross join search s"
+          + " where t.search_vector @@ s.q"
+          + "   or exists (select 1 from note n where n.todo_id = t.id and n.search_vector @@ s.q)"
+          + " order by rank desc, t.id"
+          + " limit :limit offset :offset";
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<TodoDto> findOwnedAndSharedTodosPage(
+      long personId, DashboardFilter filter, DashboardCursor after, int limit) {
+    Map<String, Object> parameters = new HashMap<>();
+    parameters.put("personId", personId);
+    parameters.put("limit", limit);
+
+    String conditions = conditions(filter, after, parameters);
+    DashboardSort sort = filter.getSort();
+
+    // each branch walks its own (owner|collaborator, ..., id) index and stops after `limit` rows,
+    // the aggregates are only evaluated for the rows of the final page
+    String sql =
+        "select page.id, page.title, page.due_date, page.priority, page.collaboration,"
+            + " (select count(*) from todo_collaboration c where c.todo_id = page.id)"
+            + " as collaborators,"
+            + " (select count(*) from todo_collaboration_request r where r.todo_id = page.id)"
+            + " as collaboration_requests"
+            + " from (("
+            + OWNED_TODOS
+            + conditions
+            + " order by "
+            + orderBy(sort, "t.")
+            + " limit :limit) union all ("
+            + SHARED_TODOS
+            + conditions
+            + " order by "
+            + orderBy(sort, "t.")
+            + " limit :limit) order by "
+            + orderBy(sort, "")
+            + " limit :limit) page"
+            + " order by "
+            + orderBy(sort, "page.");
+
+    Query query = entityManager.createNativeQuery(sql, Tuple.class);
+    parameters.forEach(query::setParameter);
+
+    return ((List<Tuple>) query.getResultList()).stream().map(TodoRepositoryImpl::toDto).toList();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<TodoSearchHit> searchOwnedAndSharedTodos(
+      long personId, String query, int limit, int offset) {
+    List<Tuple> rows =
+        entityManager
+            .createNativeQuery(SEARCH_TODOS, Tuple.class)
+            .setParameter("query", query)
+            .setParameter("personId", personId)
+            .setParameter("limit", limit)
+            .setParameter("offset", offset)
+            .getResultList();
+
+    return rows.stream()
+        .map(
+            row ->
+                new TodoSearchHit(
+                    row.get("id", Number.class).longValue(),
+                    row.get("title", String.class),
+                    row.get("description", String.class),
+                    toLocalDate(row.get("due_date")),
+                    row.get("rank", Number.class).doubleValue(),
+                    row.get("collaboration", Boolean.class)))
+        .toList();
+  }
+
+  private static String conditions(
+      DashboardFilter filter, DashboardCursor after, Map<String, Object> parameters) {
+    List<String> conditions = new ArrayList<>();
+
+    if (filter.getStatus() != null) {
+      conditions.add("t.status = :status");
+      parameters.put("status", filter.getStatus().name());
+    }
+    if (filter.getPriority() != null) {
+      conditions.add("t.priority = :priority");
+      parameters.put("priority", filter.getPriority().ordinal());
+    }
+    if (filter.getDueFrom() != null) {
+      conditions.add("t.due_date >= :dueFrom");
+      parameters.put("dueFrom", filter.getDueFrom());
+    }
+    if (filter.getDueTo() != null) {
+      conditions.add("t.due_date <= :dueTo");
+      parameters.put("dueTo", filter.getDueTo());
+    }
+
+    if (after != null) {
+      parameters.put("afterId", after.getId());
+      switch (after.getSort()) {
+        case ID -> conditions.add("t.id > :afterId");
+        case DUE_DATE -> {
+          if (after.getDueDate() == null) {
+            conditions.add("t.due_date is null and t.id > :afterId");
+          } else {
+            conditions.add(
+                "((t.due_date, t.id) > (:afterDueDate, :afterId) or t.due_date is null)");
+            parameters.put("afterDueDate", after.getDueDate());
+          }
+        }
+        case PRIORITY -> {
+          if (after.getPriority() == null) {
+            conditions.add("t.priority is null and t.id > :afterId");
+          } else {
+            conditions.add(
+                "((t.priority, t.id) > (:afterPriority, :afterId) or t.priority is null)");
+            parameters.put("afterPriority", after.getPriority().ordinal());
+          }
+        }
+      }
+    }
+
+    return conditions.isEmpty() ? "" : " and " + String.join(" and ", conditions);
+  }
+
+  // todos without a due date or priority come last, the row comparisons in the keyset conditions
+  // are null-safe for that order and the ascending indexes already keep nulls last
+  private static String orderBy(DashboardSort sort, String alias) {
+    return switch (sort) {
+      case ID -> alias + "id";
+      case DUE_DATE -> alias + "due_date nulls last, " + alias + "id";
+      case PRIORITY -> alias + "priority nulls last, " + alias + "id";
+    };
+  }
+
+  private static TodoDto toDto(Tuple row) {
+    Number priority = row.get("priority", Number.class);
+
+    return new TodoDto(
+        row.get("id", Number.class).longValue(),
+        row.get("title", String.class),
+        row.get("collaborators", Number.class).intValue(),
+        row.get("collaboration_requests", Number.class).intValue(),
+        toLocalDate(row.get("due_date")),
+        priority == null ? null : Priority.values()[priority.intValue()],
+        row.get("collaboration", Boolean.class));
+  }
+
+  private static LocalDate toLocalDate(Object value) {
+    if (value instanceof Date date) {
+      return date.toLocalDate();
+    }
+    return (LocalDate) value;
+  }
+}
@@ -0,0 +1,32 @@
+package com.renaghan.todo.todo;
+
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+@Controller
+@RequestMapping("/todo/search")
+public class TodoSearchController {
+
+  private final TodoSearchService todoSearchService;
+
+  public TodoSearchController(TodoSearchService todoSearchService) {
+    this.todoSearchService = todoSearchService;
+  }
+
+  @GetMapping
+  public String search(
+      @RequestParam(name = "q", defaultValue = "") String query,
+      @RequestParam(name = "page", defaultValue = "0") int page,
+      @AuthenticationPrincipal OidcUser user,
+      Model model) {
+    model.addAttribute("query", query);
+    model.addAttribute("hits", todoSearchService.search(user.getEmail(), query, page));
+
+    return "todo/search";
+  }
+}
@@ -0,0 +1,52 @@
+package com.renaghan.todo.todo;
+
+import java.time.LocalDate;
+
+public class TodoSearchHit {
+
+  private final Long id;
+  private final String title;
+  private final String description;
+  private final LocalDate dueDate;
+  private final double rank;
+  private final boolean isCollaboration;
+
+  public TodoSearchHit(
+      Long id,
+      String title,
+      String description,
+      LocalDate dueDate,
+      double rank,
+      boolean isCollaboration) {
+    this.id = id;
+    this.title = title;
+    this.description = description;
+    this.dueDate = dueDate;
+    this.rank = rank;
+    this.isCollaboration = isCollaboration;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getTitle() {
+    return title;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public LocalDate getDueDate() {
+    return dueDate;
+  }
+
+  public double getRank() {
+    return rank;
+  }
+
+  public boolean isCollaboration() {
+    return isCollaboration;
+  }
+}
@@ -0,0 +1,51 @@
+package com.renaghan.todo.todo;
+
+import com.renaghan.todo.person.PersonIdentityService;
+import java.util.List;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Transactional(readOnly = true)
+public class TodoSearchService {
+
+  static final int PAGE_SIZE = 20;
+
+  private final TodoRepository todoRepository;
+  private final PersonIdentityService personIdentityService;
+  private final RecentTodoWriters recentTodoWriters;
+
+  public TodoSearchService(
+      TodoRepository todoRepository,
+      PersonIdentityService personIdentityService,
+      RecentTodoWriters recentTodoWriters) {
+    this.todoRepository = todoRepository;
+    this.personIdentityService = personIdentityService;
+    this.recentTodoWriters = recentTodoWriters;
+  }
+
+  public Slice<TodoSearchHit> search(String email, String query, int page) {
+    return recentTodoWriters.read(email, () -> searchOwnedAndShared(email, query, page));
+  }
+
+  private Slice<TodoSearchHit> searchOwnedAndShared(String email, String query, int page) {
+    Pageable pageable = PageRequest.of(Math.max(page, 0), PAGE_SIZE);
+    Long personId = personIdentityService.findPersonId(email).orElse(null);
+
+    if (personId == null || query == null || query.isBlank()) {
+      return new SliceImpl<>(List.of(), pageable, false);
+    }
+
+    // one extra row tells us whether there is a next page without a count query
+    List<TodoSearchHit> hits =
+        todoRepository.searchOwnedAndSharedTodos(
+            personId, query.strip(), PAGE_SIZE + 1, (int) pageable.getOffset());
+
+    boolean hasNext = hits.size() > PAGE_SIZE;
+    return new SliceImpl<>(hasNext ? hits.subList(0, PAGE_SIZE) : hits, pageable, hasNext);
+  }
+}
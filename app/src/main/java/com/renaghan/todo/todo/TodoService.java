@@ -1,8 +1,10 @@
 package com.renaghan.todo.todo;
 
-import com.renaghan.todo.person.Person;
+import com.renaghan.todo.person.PersonIdentityService;
 import com.renaghan.todo.person.PersonRepository;
 import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Set;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,38 +14,45 @@ public class TodoService {
 
   private final TodoRepository todoRepository;
   private final PersonRepository personRepository;
+  private final PersonIdentityService personIdentityService;
+  private final RecentTodoWriters recentTodoWriters;
   private final MeterRegistry meterRegistry;
+  private final ApplicationEventPublisher eventPublisher;
 
   public TodoService(
       TodoRepository todoRepository,
       PersonRepository personRepository,
-      MeterRegistry meterRegistry) {
+      PersonIdentityService personIdentityService,
+      RecentTodoWriters recentTodoWriters,
+      MeterRegistry meterRegistry,
+      ApplicationEventPublisher eventPublisher) {
     this.todoRepository = todoRepository;
     this.personRepository = personRepository;
+    this.personIdentityService = personIdentityService;
+    this.recentTodoWriters = recentTodoWriters;
     this.meterRegistry = meterRegistry;
+    this.eventPublisher = eventPublisher;
   }
 
   public Todo saveNewTodo(Todo todo, String ownerEmail, String ownerName) {
+    long ownerId = personIdentityService.resolvePersonId(ownerEmail, ownerName);
 
-    Person person = personRepository.findByEmail(ownerEmail).orElse(null);
-
-    if (person == null) {
-      Person newUser = new Person();
-      newUser.setName(ownerName);
-      newUser.setEmail(ownerEmail);
-
-      person = personRepository.save(newUser);
-    }
-    todo.setOwner(person);
+    todo.setOwner(personRepository.getReferenceById(ownerId));
     todo.setStatus(Status.OPEN);
 
     meterRegistry.gauge("stratospheric.todo.created", 1);
 
+    eventPublisher.publishEvent(new TodoChangedEvent(this, Set.of(ownerEmail)));
+
     return todoRepository.save(todo);
   }
 
   public void updateTodo(Todo updatedTodo, long id, String email) {
-    Todo existingTodo = getOwnedOrSharedTodo(id, email);
+    checkOwnedOrShared(id, email);
+
+    // collaborators are needed to evict their dashboards
+    Todo existingTodo =
+        this.todoRepository.findWithCollaboratorsById(id).orElseThrow(NotFoundException::new);
 
     existingTodo.setTitle(updatedTodo.getTitle());
     existingTodo.setDescription(updatedTodo.getDescription());
@@ -51,38 +60,53 @@ public class TodoService {
     existingTodo.setDueDate(updatedTodo.getDueDate());
 
     this.todoRepository.save(existingTodo);
-  }
 
-  public void delete(long id, String ownerEmail) {
-    this.todoRepository.delete(getOwnedTodo(id, ownerEmail));
+    eventPublisher.publishEvent(TodoChangedEvent.of(this, existingTodo));
   }
 
-  public Todo getOwnedOrSharedTodo(long id, String email) {
-    Todo todo = this.todoRepository.findById(id).orElseThrow(NotFoundException::new);
-
-    if (userIsNotOwner(email, todo) && userIsNotCollaborator(email, todo)) {
-      throw new ForbiddenException();
+  public void delete(long id, String ownerEmail) {
+    boolean owned =
+        personIdentityService
+            .findPersonId(ownerEmail)
+            .map(ownerId -> this.todoRepository.existsByIdAndOwnerId(id, ownerId))
+            .orElse(false);
+
+    if (!owned) {
+      throw this.todoRepository.existsById(id) ? new ForbiddenException() : new NotFoundException();
     }
 
-    return todo;
-  }
+    Todo todo =
+        this.todoRepository.findWithCollaboratorsById(id).orElseThrow(NotFoundException::new);
 
-  private boolean userIsNotCollaborator(String email, Todo todo) {
-    return todo.getCollaborators().stream()
-        .noneMatch(collaborator -> collaborator.getEmail().equals(email));
+    eventPublisher.publishEvent(TodoChangedEvent.of(this, todo));
+
+    this.todoRepository.delete(todo);
   }
 
-  private boolean userIsNotOwner(String email, Todo todo) {
-    return !todo.getOwner().getEmail().equals(email);
+  /**
+   * Todo with its scalar fields and owner, as needed by the show and edit views. Read from the
+   * primary right after the user changed a todo, so an edit form never starts from stale values.
+   */
+  @Transactional(readOnly = true)
+  public Todo getOwnedOrSharedTodo(long id, String email) {
+    return recentTodoWriters.read(
+        email,
+        () -> {
+          checkOwnedOrShared(id, email);
+          return this.todoRepository.findById(id).orElseThrow(NotFoundException::new);
+        });
   }
 
-  private Todo getOwnedTodo(long id, String ownerEmail) {
-    Todo todo = this.todoRepository.findById(id).orElseThrow(NotFoundException::new);
+  private void checkOwnedOrShared(long id, String email) {
+    boolean ownedOrShared =
+        personIdentityService
+            .findPersonId(email)
+            .map(personId -> this.todoRepository.isOwnerOrCollaborator(id, personId))
+            .orElse(false);
 
-    if (userIsNotOwner(ownerEmail, todo)) {
-      throw new ForbiddenException();
+    if (!ownedOrShared) {
+      // only pay for the second lookup on the rare denied path
+      throw this.todoRepository.existsById(id) ? new ForbiddenException() : new NotFoundException();
     }
-
-    return todo;
   }
 }
@@ -3,14 +3,24 @@ package com.renaghan.todo.tracing;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
 
+/**
+ * One request of a user. The random id spreads writes over partitions, per-user reads go through
+ * {@link #USER_TIMESTAMP_INDEX}. Timestamps are ISO-8601 instants truncated to seconds, so they
+ * sort chronologically as strings.
+ */
 @DynamoDbBean
 public class Breadcrumb {
 
+  public static final String USER_TIMESTAMP_INDEX = "username-timestamp-index";
+
   private String id;
   private String uri;
   private String username;
   private String timestamp;
+  private Long expiresAt;
 
   @DynamoDbPartitionKey
   public String getId() {
@@ -30,6 +40,7 @@ public class Breadcrumb {
     this.uri = uri;
   }
 
+  @DynamoDbSecondaryPartitionKey(indexNames = USER_TIMESTAMP_INDEX)
   @DynamoDbAttribute(value = "username")
   public String getUsername() {
     return username;
@@ -39,6 +50,7 @@ public class Breadcrumb {
     this.username = username;
   }
 
+  @DynamoDbSecondarySortKey(indexNames = USER_TIMESTAMP_INDEX)
   @DynamoDbAttribute(value = "timestamp")
   public String getTimestamp() {
     return timestamp;
@@ -47,4 +59,14 @@ public class Breadcrumb {
   public void setTimestamp(String timestamp) {
     this.timestamp = timestamp;
   }
+
+  /** Epoch seconds, the table's TTL attribute. */
+  @DynamoDbAttribute(value = "expiresAt")
+  public Long getExpiresAt() {
+    return expiresAt;
+  }
+
+  public void setExpiresAt(Long expiresAt) {
+    this.expiresAt = expiresAt;
+  }
 }
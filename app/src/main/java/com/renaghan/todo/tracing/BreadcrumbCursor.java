@@ -0,0 +1,73 @@
+package com.renaghan.todo.tracing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Opaque position in a user's trace: timestamp and id of the last breadcrumb on the previous page,
+ * which together with the username make up the index's exclusive start key.
+ */
+public class BreadcrumbCursor {
+
+  private static final String SEPARATOR = "~";
+
+  private final String timestamp;
+  private final String id;
+
+  private BreadcrumbCursor(String timestamp, String id) {
+    this.timestamp = timestamp;
+    this.id = id;
+  }
+
+  public static BreadcrumbCursor after(Breadcrumb breadcrumb) {
+    return new BreadcrumbCursor(breadcrumb.getTimestamp(), breadcrumb.getId());
+  }
+
+  /** Returns null once DynamoDB reports no further page. */
+  public static BreadcrumbCursor after(Map<String, AttributeValue> lastEvaluatedKey) {
+    if (lastEvaluatedKey == null || lastEvaluatedKey.isEmpty()) {
+      return null;
+    }
+    return new BreadcrumbCursor(
+        lastEvaluatedKey.get("timestamp").s(), lastEvaluatedKey.get("id").s());
+  }
+
+  /** Returns null for a missing or malformed cursor so paging restarts. */
+  public static BreadcrumbCursor decode(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+
+    try {
+      String[] parts =
+          new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+              .split(SEPARATOR, -1);
+      return parts.length == 2 ? new BreadcrumbCursor(parts[0], parts[1]) : null;
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+
+  public String encode() {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString((timestamp + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+  }
+
+  public String getTimestamp() {
+    return timestamp;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  Map<String, AttributeValue> toExclusiveStartKey(String username) {
+    return Map.of(
+        "id", AttributeValue.fromS(id),
+        "username", AttributeValue.fromS(username),
+        "timestamp", AttributeValue.fromS(timestamp));
+  }
+}
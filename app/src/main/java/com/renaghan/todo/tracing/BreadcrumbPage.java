@@ -0,0 +1,28 @@
+package com.renaghan.todo.tracing;
+
+import java.util.List;
+
+/** One page of a user's trace, newest first. */
+public class BreadcrumbPage {
+
+  private final List<Breadcrumb> breadcrumbs;
+  private final String nextCursor;
+
+  public BreadcrumbPage(List<Breadcrumb> breadcrumbs, String nextCursor) {
+    this.breadcrumbs = breadcrumbs;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<Breadcrumb> getBreadcrumbs() {
+    return breadcrumbs;
+  }
+
+  /** Null on the last page; a full last page may still get a cursor to an empty page. */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public boolean hasNext() {
+    return nextCursor != null;
+  }
+}
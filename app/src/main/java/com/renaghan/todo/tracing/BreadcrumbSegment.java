@@ -0,0 +1,263 @@
+package com.renaghan.todo.tracing;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One memory-mapped, append-only file of the {@link SegmentLogTraceDao}. A record is
+ *
+ * <pre>
+ * int length | long epoch second | int offset of the user's previous record, -1 for none
+ * | id | username | uri            (each an int byte count and UTF-8 bytes)
+ * </pre>
+ *
+ * The length is written last, after the zero length that ends the segment behind it, so a record
+ * cut short by a crash is never read. Reopening checks every field of every record, including
+ * that its previous offset is the user's record before it, and keeps the records up to the first
+ * one that is not intact. The sparse index holds only the offset of each user's newest record;
+ * the records of a user are chained backwards from there, so reading them never touches another
+ * user's records.
+ */
+final class BreadcrumbSegment {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BreadcrumbSegment.class);
+
+  private static final String PREFIX = "breadcrumbs-";
+  private static final String SUFFIX = ".log";
+
+  private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES;
+  private static final int MIN_RECORD_BYTES = HEADER_BYTES + 3 * Integer.BYTES;
+  private static final int NO_RECORD = -1;
+
+  private final Path path;
+  private final long createdAtMillis;
+  private final MappedByteBuffer buffer;
+  private final Map<String, Integer> newestOffsetByUser = new ConcurrentHashMap<>();
+
+  // written by the appending thread only, read by queries
+  private volatile int end;
+  private volatile long minEpochSecond = Long.MAX_VALUE;
+  private volatile long maxEpochSecond = Long.MIN_VALUE;
+
+  private BreadcrumbSegment(Path path, long createdAtMillis, MappedByteBuffer buffer) {
+    this.path = path;
+    this.createdAtMillis = createdAtMillis;
+    this.buffer = buffer;
+  }
+
+  static BreadcrumbSegment create(Path directory, long createdAtMillis, int capacity) {
+    long name = createdAtMillis;
+    while (true) {
+      Path path = directory.resolve(PREFIX + name + SUFFIX);
+      try {
+        return new BreadcrumbSegment(path, name, map(path, capacity, true));
+      } catch (UncheckedIOException e) {
+        // a segment filled up or was prepared within the same millisecond as another one
+        if (!(e.getCause() instanceof FileAlreadyExistsException)) {
+          throw e;
+        }
+        name++;
+      }
+    }
+  }
+
+  /** Maps an existing segment and rebuilds its index. */
+  static BreadcrumbSegment open(Path path) {
+    try {
+      String fileName = path.getFileName().toString();
+      long createdAtMillis =
+          Long.parseLong(fileName.substring(PREFIX.length(), fileName.length() - SUFFIX.length()));
+      BreadcrumbSegment segment =
+          new BreadcrumbSegment(path, createdAtMillis, map(path, (int) Files.size(path), false));
+      segment.recover();
+      return segment;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not open breadcrumb segment " + path, e);
+    }
+  }
+
+  static boolean isSegment(Path path) {
+    String fileName = path.getFileName().toString();
+    return fileName.startsWith(PREFIX) && fileName.endsWith(SUFFIX);
+  }
+
+  /** Returns false when the record does not fit, the caller rolls over to a new segment. */
+  boolean append(String id, String username, String uri, long epochSecond) {
+    byte[] idBytes = bytes(id);
+    byte[] usernameBytes = bytes(username);
+    byte[] uriBytes = bytes(uri);
+    int length = MIN_RECORD_BYTES + idBytes.length + usernameBytes.length + uriBytes.length;
+    // keeps room for the terminating zero length
+    if (end + length + Integer.BYTES > buffer.capacity()) {
+      return false;
+    }
+
+    int offset = end;
+    ByteBuffer record = buffer.duplicate();
+    record.position(offset + Integer.BYTES);
+    record.putLong(epochSecond);
+    record.putInt(newestOffsetByUser.getOrDefault(username, NO_RECORD));
+    put(record, idBytes);
+    put(record, usernameBytes);
+    put(record, uriBytes);
+    // the space behind may hold the rest of a record recovery stopped at
+    buffer.putInt(offset + length, 0);
+    buffer.putInt(offset, length);
+
+    minEpochSecond = Math.min(minEpochSecond, epochSecond);
+    maxEpochSecond = Math.max(maxEpochSecond, epochSecond);
+    end = offset + length;
+    // publishes the record to queries, the map establishes the happens-before
+    newestOffsetByUser.put(username, offset);
+    return true;
+  }
+
+  /** Visits the user's breadcrumbs newest first until the visitor returns false. */
+  void forEachNewestFirst(String username, Predicate<Breadcrumb> visitor) {
+    Integer newest = newestOffsetByUser.get(username);
+    int offset = newest == null ? NO_RECORD : newest;
+    ByteBuffer reader = buffer.duplicate();
+    while (offset != NO_RECORD) {
+      reader.position(offset + Integer.BYTES);
+      long epochSecond = reader.getLong();
+      int previous = reader.getInt();
+
+      Breadcrumb breadcrumb = new Breadcrumb();
+      breadcrumb.setTimestamp(Instant.ofEpochSecond(epochSecond).toString());
+      breadcrumb.setId(string(reader));
+      breadcrumb.setUsername(string(reader));
+      breadcrumb.setUri(string(reader));
+      if (!visitor.test(breadcrumb)) {
+        return;
+      }
+      offset = previous;
+    }
+  }
+
+  void force() {
+    buffer.force();
+  }
+
+  boolean delete() {
+    try {
+      return Files.deleteIfExists(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not delete breadcrumb segment " + path, e);
+    }
+  }
+
+  long getCreatedAtMillis() {
+    return createdAtMillis;
+  }
+
+  long getMinEpochSecond() {
+    return minEpochSecond;
+  }
+
+  long getMaxEpochSecond() {
+    return maxEpochSecond;
+  }
+
+  boolean isEmpty() {
+    return end == 0;
+  }
+
+  Path getPath() {
+    return path;
+  }
+
+  private void recover() {
+    ByteBuffer reader = buffer.duplicate();
+    int offset = 0;
+    while (offset <= buffer.capacity() - Integer.BYTES) {
+      int length = buffer.getInt(offset);
+      if (length == 0) {
+        break;
+      }
+      if (length < MIN_RECORD_BYTES || length > buffer.capacity() - offset) {
+        LOG.warn("Ignoring breadcrumb segment {} from offset {}, invalid length", path, offset);
+        break;
+      }
+      reader.limit(offset + length);
+      reader.position(offset + Integer.BYTES);
+      long epochSecond = reader.getLong();
+      int previous = reader.getInt();
+      String id = checkedString(reader);
+      String username = id == null ? null : checkedString(reader);
+      String uri = username == null ? null : checkedString(reader);
+      if (uri == null
+          || reader.hasRemaining()
+          || epochSecond < Instant.MIN.getEpochSecond()
+          || epochSecond > Instant.MAX.getEpochSecond()
+          || previous != newestOffsetByUser.getOrDefault(username, NO_RECORD)) {
+        LOG.warn("Ignoring breadcrumb segment {} from offset {}, invalid record", path, offset);
+        break;
+      }
+
+      minEpochSecond = Math.min(minEpochSecond, epochSecond);
+      maxEpochSecond = Math.max(maxEpochSecond, epochSecond);
+      newestOffsetByUser.put(username, offset);
+      offset += length;
+    }
+    end = offset;
+  }
+
+  private static MappedByteBuffer map(Path path, int capacity, boolean create) {
+    try (FileChannel channel =
+        create
+            ? FileChannel.open(
+                path,
+                StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE)
+            : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      // the mapping stays valid after the channel is closed, a new file reads as zeros
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not map breadcrumb segment " + path, e);
+    }
+  }
+
+  private static byte[] bytes(String value) {
+    return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static void put(ByteBuffer target, byte[] value) {
+    target.putInt(value.length);
+    target.put(value);
+  }
+
+  private static String string(ByteBuffer source) {
+    byte[] value = new byte[source.getInt()];
+    source.get(value);
+    return new String(value, StandardCharsets.UTF_8);
+  }
+
+  // null when the byte count does not fit into the rest of the record
+  private static String checkedString(ByteBuffer source) {
+    if (source.remaining() < Integer.BYTES) {
+      return null;
+    }
+    int count = source.getInt();
+    if (count < 0 || count > source.remaining()) {
+      return null;
+    }
+    byte[] value = new byte[count];
+    source.get(value);
+    return new String(value, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,229 @@
+package com.renaghan.todo.tracing;
+
+import com.renaghan.todo.messaging.RingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+
+/**
+ * Writes breadcrumbs in batches instead of one PutItem per request. Tracing events only put a
+ * breadcrumb into a bounded lock-free queue, so the request thread never waits for DynamoDB. The
+ * flusher drains it every {@code flush-interval} in BatchWriteItem calls of 25 items. Items
+ * DynamoDB leaves unprocessed are retried with the next flush, up to {@code max-attempts} times.
+ * Breadcrumbs are best effort: on a full queue the {@code overflow-policy} drops one.
+ */
+@Component
+@ConditionalOnProperty(
+    value = "custom.breadcrumbs.backend",
+    havingValue = "dynamodb",
+    matchIfMissing = true)
+public class BreadcrumbWriter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BreadcrumbWriter.class);
+
+  // BatchWriteItem accepts at most 25 items
+  private static final int DYNAMODB_BATCH_SIZE = 25;
+
+  private final DynamoDbEnhancedClient dynamoDbEnhancedClient;
+  private final DynamoDbTable<Breadcrumb> table;
+  private final Duration retention;
+  private final RingBuffer<Breadcrumb> queue;
+  private final OverflowPolicy overflowPolicy;
+  private final int maxAttempts;
+
+  // only touched by the flusher, @Scheduled with a fixed delay never overlaps itself
+  private final Deque<Unprocessed> unprocessed = new ArrayDeque<>();
+
+  private final Counter written;
+  private final Counter droppedOverflow;
+  private final Counter droppedFailed;
+  private final Counter retried;
+  private final Timer batchTimer;
+
+  public BreadcrumbWriter(
+      DynamoDbEnhancedClient dynamoDbEnhancedClient,
+      DynamoDbTable<Breadcrumb> breadcrumbTable,
+      MeterRegistry meterRegistry,
+      @Value("${custom.breadcrumbs.retention:30d}") Duration retention,
+      @Value("${custom.breadcrumbs.queue-capacity:8192}") int queueCapacity,
+      @Value("${custom.breadcrumbs.overflow-policy:drop-newest}") OverflowPolicy overflowPolicy,
+      @Value("${custom.breadcrumbs.max-attempts:5}") int maxAttempts) {
+    this.dynamoDbEnhancedClient = dynamoDbEnhancedClient;
+    this.table = breadcrumbTable;
+    this.retention = retention;
+    this.queue = new RingBuffer<>(queueCapacity);
+    this.overflowPolicy = overflowPolicy;
+    this.maxAttempts = maxAttempts;
+
+    this.written =
+        Counter.builder("stratospheric.breadcrumbs.written")
+            .description("Breadcrumbs written to DynamoDB")
+            .register(meterRegistry);
+    this.droppedOverflow =
+        Counter.builder("stratospheric.breadcrumbs.dropped")
+            .description("Breadcrumbs that were never written")
+            .tag("reason", "overflow")
+            .register(meterRegistry);
+    this.droppedFailed =
+        Counter.builder("stratospheric.breadcrumbs.dropped")
+            .description("Breadcrumbs that were never written")
+            .tag("reason", "failed")
+            .register(meterRegistry);
+    this.retried =
+        Counter.builder("stratospheric.breadcrumbs.retried")
+            .description("Breadcrumbs DynamoDB did not process, retried with the next flush")
+            .register(meterRegistry);
+    this.batchTimer =
+        Timer.builder("stratospheric.breadcrumbs.batch")
+            .description("Duration of a BatchWriteItem call")
+            .register(meterRegistry);
+    Gauge.builder("stratospheric.breadcrumbs.queue.depth", queue, RingBuffer::size)
+        .description("Breadcrumbs waiting to be written")
+        .register(meterRegistry);
+    Gauge.builder("stratospheric.breadcrumbs.unprocessed", unprocessed, Deque::size)
+        .description("Breadcrumbs waiting for a retry")
+        .register(meterRegistry);
+  }
+
+  @EventListener(TracingEvent.class)
+  public void storeTracingEvent(TracingEvent tracingEvent) {
+    Breadcrumb breadcrumb = new Breadcrumb();
+    breadcrumb.setId(UUID.randomUUID().toString());
+    breadcrumb.setUri(tracingEvent.getUri());
+    breadcrumb.setUsername(tracingEvent.getUsername());
+    Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    breadcrumb.setTimestamp(now.toString());
+    breadcrumb.setExpiresAt(now.plus(retention).getEpochSecond());
+
+    if (queue.offer(breadcrumb)) {
+      return;
+    }
+    droppedOverflow.increment();
+    // another thread may take the freed slot, the breadcrumb is then dropped after all
+    if (overflowPolicy == OverflowPolicy.DROP_OLDEST
+        && queue.poll() != null
+        && !queue.offer(breadcrumb)) {
+      droppedOverflow.increment();
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${custom.breadcrumbs.flush-interval:PT1S}")
+  public void flush() {
+    // retries go first, at most one batch of them per flush keeps a throttled table from
+    // starving new breadcrumbs
+    List<Unprocessed> batch = new ArrayList<>(DYNAMODB_BATCH_SIZE);
+    while (!unprocessed.isEmpty() && batch.size() < DYNAMODB_BATCH_SIZE) {
+      batch.add(unprocessed.poll());
+    }
+    if (!batch.isEmpty()) {
+      write(batch);
+    }
+
+    int taken;
+    do {
+      batch = new ArrayList<>(DYNAMODB_BATCH_SIZE);
+      Breadcrumb breadcrumb;
+      while (batch.size() < DYNAMODB_BATCH_SIZE && (breadcrumb = queue.poll()) != null) {
+        batch.add(new Unprocessed(breadcrumb, 0));
+      }
+      taken = batch.size();
+      if (taken > 0) {
+        write(batch);
+      }
+    } while (taken == DYNAMODB_BATCH_SIZE);
+  }
+
+  @PreDestroy
+  public void flushOnShutdown() {
+    flush();
+    if (!unprocessed.isEmpty()) {
+      LOG.warn("Dropping {} unprocessed breadcrumbs on shutdown", unprocessed.size());
+      droppedFailed.increment(unprocessed.size());
+      unprocessed.clear();
+    }
+  }
+
+  private void write(List<Unprocessed> batch) {
+    WriteBatch.Builder<Breadcrumb> writeBatch =
+        WriteBatch.builder(Breadcrumb.class).mappedTableResource(table);
+    batch.forEach(item -> writeBatch.addPutItem(item.getBreadcrumb()));
+
+    List<Breadcrumb> notWritten;
+    try {
+      BatchWriteResult result =
+          batchTimer.record(
+              () ->
+                  dynamoDbEnhancedClient.batchWriteItem(
+                      BatchWriteItemEnhancedRequest.builder()
+                          .addWriteBatch(writeBatch.build())
+                          .build()));
+      notWritten = result.unprocessedPutItemsForTable(table);
+    } catch (SdkException e) {
+      LOG.warn("Could not write {} breadcrumbs, retrying with the next flush", batch.size(), e);
+      notWritten = batch.stream().map(Unprocessed::getBreadcrumb).toList();
+    }
+
+    written.increment(batch.size() - notWritten.size());
+    if (notWritten.isEmpty()) {
+      return;
+    }
+
+    // unprocessed items come back as new objects, matched to their attempts by id
+    for (Unprocessed item : batch) {
+      boolean failed =
+          notWritten.stream()
+              .anyMatch(breadcrumb -> breadcrumb.getId().equals(item.getBreadcrumb().getId()));
+      if (!failed) {
+        continue;
+      }
+      if (item.getAttempts() + 1 >= maxAttempts) {
+        droppedFailed.increment();
+      } else {
+        retried.increment();
+        unprocessed.add(new Unprocessed(item.getBreadcrumb(), item.getAttempts() + 1));
+      }
+    }
+  }
+
+  private static final class Unprocessed {
+
+    private final Breadcrumb breadcrumb;
+    private final int attempts;
+
+    private Unprocessed(Breadcrumb breadcrumb, int attempts) {
+      this.breadcrumb = breadcrumb;
+      this.attempts = attempts;
+    }
+
+    private Breadcrumb getBreadcrumb() {
+      return breadcrumb;
+    }
+
+    private int getAttempts() {
+      return attempts;
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package com.renaghan.todo.tracing;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+
+/** Reads a user's breadcrumbs through {@link Breadcrumb#USER_TIMESTAMP_INDEX}, newest first. */
+@Component
+@ConditionalOnProperty(
+    value = "custom.breadcrumbs.backend",
+    havingValue = "dynamodb",
+    matchIfMissing = true)
+public class DynamoDbTraceDao implements TraceDao {
+
+  private final DynamoDbTable<Breadcrumb> breadcrumbTable;
+  private final int pageSize;
+
+  public DynamoDbTraceDao(
+      DynamoDbTable<Breadcrumb> breadcrumbTable,
+      @Value("${custom.breadcrumbs.page-size:100}") int pageSize) {
+    this.breadcrumbTable = breadcrumbTable;
+    this.pageSize = pageSize;
+  }
+
+  @Override
+  public BreadcrumbPage findAllEventsForUser(String username, String cursor) {
+    return query(
+        username,
+        QueryConditional.keyEqualTo(Key.builder().partitionValue(username).build()),
+        cursor);
+  }
+
+  @Override
+  public BreadcrumbPage findUserTrace(String username, Instant from, Instant to, String cursor) {
+    return query(
+        username,
+        QueryConditional.sortBetween(
+            Key.builder().partitionValue(username).sortValue(timestamp(from)).build(),
+            Key.builder().partitionValue(username).sortValue(timestamp(to)).build()),
+        cursor);
+  }
+
+  private BreadcrumbPage query(String username, QueryConditional condition, String cursor) {
+    QueryEnhancedRequest.Builder request =
+        QueryEnhancedRequest.builder()
+            .queryConditional(condition)
+            .scanIndexForward(false)
+            .limit(pageSize);
+    BreadcrumbCursor after = BreadcrumbCursor.decode(cursor);
+    if (after != null) {
+      request.exclusiveStartKey(after.toExclusiveStartKey(username));
+    }
+
+    // only the first page, DynamoDB's limit makes it one request
+    Page<Breadcrumb> page =
+        breadcrumbTable
+            .index(Breadcrumb.USER_TIMESTAMP_INDEX)
+            .query(request.build())
+            .iterator()
+            .next();
+    BreadcrumbCursor next = BreadcrumbCursor.after(page.lastEvaluatedKey());
+    return new BreadcrumbPage(page.items(), next == null ? null : next.encode());
+  }
+
+  private static String timestamp(Instant instant) {
+    return instant.truncatedTo(ChronoUnit.SECONDS).toString();
+  }
+}
@@ -0,0 +1,9 @@
+package com.renaghan.todo.tracing;
+
+/** What {@link BreadcrumbWriter} gives up when its queue is full. */
+public enum OverflowPolicy {
+  /** Keeps the queued breadcrumbs, the new one is dropped. */
+  DROP_NEWEST,
+  /** Makes room for the new breadcrumb by dropping the oldest queued one. */
+  DROP_OLDEST
+}
@@ -0,0 +1,300 @@
+package com.renaghan.todo.tracing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Keeps breadcrumbs on local disk instead of DynamoDB, for single nodes tracing every request.
+ * Tracing events are appended to the newest {@link BreadcrumbSegment}, a memory-mapped file, on
+ * the publishing thread; that is a copy into memory, the OS writes it back. A new segment starts
+ * every {@code segment-duration} or once the current one is full, segments whose newest breadcrumb
+ * is older than {@code retention} are deleted. Queries skip segments outside the time range or
+ * without the user and follow the user's record chain within the others.
+ *
+ * <p>Appends only hold the monitor for the copy. Creating and mapping the next segment and forcing
+ * segments to disk happen in {@link #maintain()}, a rollover takes the spare segment prepared
+ * there and only creates one itself when there is none yet.
+ */
+@Component
+@ConditionalOnProperty(value = "custom.breadcrumbs.backend", havingValue = "segment-log")
+public class SegmentLogTraceDao implements TraceDao {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SegmentLogTraceDao.class);
+
+  private final Path directory;
+  private final int segmentCapacity;
+  private final Duration segmentDuration;
+  private final Duration retention;
+  private final int pageSize;
+
+  // oldest first, replaced on rollover and retention only
+  private final List<BreadcrumbSegment> segments = new CopyOnWriteArrayList<>();
+  // rolled over but not yet forced to disk
+  private final Queue<BreadcrumbSegment> retired = new ConcurrentLinkedQueue<>();
+
+  // written under the monitor
+  private volatile BreadcrumbSegment active;
+  private volatile BreadcrumbSegment spare;
+  private long activeSinceMillis;
+
+  private final Counter written;
+  private final Counter dropped;
+
+  public SegmentLogTraceDao(
+      MeterRegistry meterRegistry,
+      @Value("${custom.breadcrumbs.segment-log.directory}") String directory,
+      @Value("${custom.breadcrumbs.segment-log.segment-size:64MB}") DataSize segmentSize,
+      @Value("${custom.breadcrumbs.segment-log.segment-duration:1h}") Duration segmentDuration,
+      @Value("${custom.breadcrumbs.retention:30d}") Duration retention,
+      @Value("${custom.breadcrumbs.page-size:100}") int pageSize) {
+    this.directory = Path.of(directory);
+    this.segmentCapacity = Math.toIntExact(segmentSize.toBytes());
+    this.segmentDuration = segmentDuration;
+    this.retention = retention;
+    this.pageSize = pageSize;
+
+    try {
+      Files.createDirectories(this.directory);
+      try (Stream<Path> files = Files.list(this.directory)) {
+        files
+            .filter(BreadcrumbSegment::isSegment)
+            .map(BreadcrumbSegment::open)
+            .sorted(Comparator.comparingLong(BreadcrumbSegment::getCreatedAtMillis))
+            .forEach(segments::add);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not open breadcrumb segments in " + directory, e);
+    }
+    if (!segments.isEmpty()) {
+      active = segments.get(segments.size() - 1);
+      activeSinceMillis = active.getCreatedAtMillis();
+    }
+    LOG.info("Opened {} breadcrumb segments in {}", segments.size(), directory);
+
+    this.written =
+        Counter.builder("stratospheric.breadcrumbs.written")
+            .description("Breadcrumbs written to the local segment log")
+            .register(meterRegistry);
+    this.dropped =
+        Counter.builder("stratospheric.breadcrumbs.dropped")
+            .description("Breadcrumbs that were never written")
+            .tag("reason", "too-large")
+            .register(meterRegistry);
+    Gauge.builder("stratospheric.breadcrumbs.segments", segments, List::size)
+        .description("Segment files of the local breadcrumb log")
+        .register(meterRegistry);
+  }
+
+  @EventListener(TracingEvent.class)
+  public void storeTracingEvent(TracingEvent tracingEvent) {
+    String username = tracingEvent.getUsername() == null ? "" : tracingEvent.getUsername();
+    append(
+        UUID.randomUUID().toString(),
+        username,
+        tracingEvent.getUri(),
+        Instant.now().getEpochSecond());
+  }
+
+  @Override
+  public BreadcrumbPage findAllEventsForUser(String username, String cursor) {
+    return findUserTrace(username, Instant.EPOCH, Instant.MAX, cursor);
+  }
+
+  @Override
+  public BreadcrumbPage findUserTrace(String username, Instant from, Instant to, String cursor) {
+    PageCollector collector =
+        new PageCollector(
+            from.getEpochSecond(), to.getEpochSecond(), BreadcrumbCursor.decode(cursor));
+
+    List<BreadcrumbSegment> snapshot = new ArrayList<>(segments);
+    for (int i = snapshot.size() - 1; i >= 0 && !collector.isFull(); i--) {
+      BreadcrumbSegment segment = snapshot.get(i);
+      if (segment.getMaxEpochSecond() < collector.from
+          || segment.getMinEpochSecond() > collector.to) {
+        continue;
+      }
+      segment.forEachNewestFirst(username, collector);
+    }
+
+    return new BreadcrumbPage(collector.page, collector.nextCursor());
+  }
+
+  /**
+   * Writes the mapped pages back, prepares the next segment and deletes segments past the
+   * retention. Appends continue meanwhile.
+   */
+  @Scheduled(fixedDelayString = "${custom.breadcrumbs.flush-interval:PT1S}")
+  public void maintain() {
+    forceToDisk();
+    prepareSpare();
+
+    long oldestKept = Instant.now().minus(retention).getEpochSecond();
+    for (BreadcrumbSegment segment : segments) {
+      // a segment becomes active before it is listed, so a listed one is never active again
+      if (segment != active
+          && (segment.isEmpty() || segment.getMaxEpochSecond() < oldestKept)) {
+        // queries still reading it keep the mapping, which outlives the file
+        segments.remove(segment);
+        segment.delete();
+        LOG.info("Deleted breadcrumb segment {}", segment.getPath());
+      }
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    forceToDisk();
+    BreadcrumbSegment unused;
+    synchronized (this) {
+      unused = spare;
+      spare = null;
+    }
+    if (unused != null) {
+      unused.delete();
+    }
+  }
+
+  private synchronized void append(String id, String username, String uri, long epochSecond) {
+    long now = System.currentTimeMillis();
+    if (active == null || now - activeSinceMillis >= segmentDuration.toMillis()) {
+      rollOver(now);
+    }
+    if (!active.append(id, username, uri, epochSecond)) {
+      if (!active.isEmpty()) {
+        rollOver(now);
+      }
+      if (!active.append(id, username, uri, epochSecond)) {
+        LOG.warn("Dropping breadcrumb for {} larger than a segment", uri);
+        dropped.increment();
+        return;
+      }
+    }
+    written.increment();
+  }
+
+  // under the monitor; maintain() forces the previous segment
+  private void rollOver(long now) {
+    BreadcrumbSegment next = spare;
+    spare = null;
+    if (next == null) {
+      // before the first maintenance run or after several rollovers in between
+      next = BreadcrumbSegment.create(directory, now, segmentCapacity);
+    }
+    if (active != null) {
+      retired.add(active);
+    }
+    active = next;
+    activeSinceMillis = now;
+    segments.add(next);
+  }
+
+  private void forceToDisk() {
+    BreadcrumbSegment segment;
+    while ((segment = retired.poll()) != null) {
+      segment.force();
+    }
+    segment = active;
+    if (segment != null) {
+      segment.force();
+    }
+  }
+
+  private void prepareSpare() {
+    if (spare != null) {
+      return;
+    }
+    BreadcrumbSegment prepared =
+        BreadcrumbSegment.create(directory, System.currentTimeMillis(), segmentCapacity);
+    boolean taken = false;
+    synchronized (this) {
+      // segments are ordered by creation, so a rollover that created its own makes this one stale
+      if (spare == null
+          && (active == null || active.getCreatedAtMillis() < prepared.getCreatedAtMillis())) {
+        spare = prepared;
+        taken = true;
+      }
+    }
+    if (!taken) {
+      prepared.delete();
+    }
+  }
+
+  /** Collects one page across segments, resuming after the cursor's breadcrumb. */
+  private final class PageCollector implements Predicate<Breadcrumb> {
+
+    private final long from;
+    private final long to;
+    private final BreadcrumbCursor after;
+    private final List<Breadcrumb> page = new ArrayList<>();
+    private boolean resumed;
+    private boolean full;
+
+    private PageCollector(long from, long to, BreadcrumbCursor after) {
+      this.from = from;
+      this.to = to;
+      this.after = after;
+      this.resumed = after == null;
+    }
+
+    @Override
+    public boolean test(Breadcrumb breadcrumb) {
+      long epochSecond = Instant.parse(breadcrumb.getTimestamp()).getEpochSecond();
+      if (epochSecond > to) {
+        return true;
+      }
+      if (epochSecond < from) {
+        return false;
+      }
+      if (!resumed) {
+        // the cursor's breadcrumb may be gone with its segment, then anything older resumes
+        int compared = breadcrumb.getTimestamp().compareTo(after.getTimestamp());
+        if (compared > 0) {
+          return true;
+        }
+        resumed = compared < 0 || breadcrumb.getId().equals(after.getId());
+        if (compared == 0) {
+          return true;
+        }
+      }
+      if (page.size() == pageSize) {
+        full = true;
+        return false;
+      }
+      page.add(breadcrumb);
+      return true;
+    }
+
+    private boolean isFull() {
+      return full;
+    }
+
+    private String nextCursor() {
+      return full ? BreadcrumbCursor.after(page.get(page.size() - 1)).encode() : null;
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.renaghan.todo.tracing;
+
+/**
+ * Request path pattern for {@link TraceSampler}, compiled once and matched without allocating.
+ * Supports literal segments, {@code *} for exactly one segment and a trailing {@code **} for any
+ * number of segments, e.g. {@code /todo/*}{@code /collaborations/**}.
+ */
+final class TracePathPattern {
+
+  private static final String ANY_SEGMENT = "*";
+  private static final String ANY_SEGMENTS = "**";
+
+  private final String pattern;
+  private final String[] segments;
+
+  private TracePathPattern(String pattern, String[] segments) {
+    this.pattern = pattern;
+    this.segments = segments;
+  }
+
+  static TracePathPattern compile(String pattern) {
+    String trimmed = pattern.startsWith("/") ? pattern.substring(1) : pattern;
+    String[] segments = trimmed.split("/", -1);
+    for (int i = 0; i < segments.length - 1; i++) {
+      if (ANY_SEGMENTS.equals(segments[i])) {
+        throw new IllegalArgumentException("** is only supported at the end: " + pattern);
+      }
+    }
+    return new TracePathPattern(pattern, segments);
+  }
+
+  boolean matches(String path) {
+    int length = path.length();
+    int position = length > 0 && path.charAt(0) == '/' ? 1 : 0;
+    for (String segment : segments) {
+      if (segment.equals(ANY_SEGMENTS)) {
+        return true;
+      }
+      // every path segment is used up, but the pattern expects another one
+      if (position > length) {
+        return false;
+      }
+      int end = path.indexOf('/', position);
+      if (end < 0) {
+        end = length;
+      }
+      if (!segment.equals(ANY_SEGMENT)
+          && (end - position != segment.length()
+              || !path.regionMatches(position, segment, 0, segment.length()))) {
+        return false;
+      }
+      position = end + 1;
+    }
+    return position > length;
+  }
+
+  @Override
+  public String toString() {
+    return pattern;
+  }
+}
@@ -0,0 +1,146 @@
+package com.renaghan.todo.tracing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which requests leave a breadcrumb. In order: paths not included or excluded are
+ * dropped, write methods and always-sample paths are kept, the rest is kept with {@code
+ * probability} and then only up to {@code max-per-user-per-minute} per budget key, the user or, for
+ * anonymous requests, the client address. A decision does not allocate, except for the budget of a
+ * key the sampler has not seen for a while.
+ */
+public class TraceSampler {
+
+  private final TracePathPattern[] include;
+  private final TracePathPattern[] exclude;
+  private final TracePathPattern[] alwaysSample;
+  private final String[] alwaysSampleMethods;
+  private final double probability;
+  private final int maxPerUserPerMinute;
+  private final Cache<String, UserBudget> userBudgets;
+  // kept apart from the users, so a client address never shares a budget with a username
+  private final Cache<String, UserBudget> anonymousBudgets;
+
+  private final Counter sampled;
+  private final Counter alwaysSampled;
+  private final Counter droppedPath;
+  private final Counter droppedProbability;
+  private final Counter droppedUserCap;
+
+  public TraceSampler(
+      Collection<String> include,
+      Collection<String> exclude,
+      Collection<String> alwaysSample,
+      Collection<String> alwaysSampleMethods,
+      double probability,
+      int maxPerUserPerMinute,
+      MeterRegistry meterRegistry) {
+    this.include = compile(include);
+    this.exclude = compile(exclude);
+    this.alwaysSample = compile(alwaysSample);
+    this.alwaysSampleMethods =
+        alwaysSampleMethods.stream()
+            .map(method -> method.toUpperCase(Locale.ROOT))
+            .toArray(String[]::new);
+    this.probability = probability;
+    this.maxPerUserPerMinute = maxPerUserPerMinute;
+    this.userBudgets = budgets();
+    this.anonymousBudgets = budgets();
+
+    this.sampled = counter(meterRegistry, "sampled", "probability");
+    this.alwaysSampled = counter(meterRegistry, "sampled", "always");
+    this.droppedPath = counter(meterRegistry, "dropped", "path");
+    this.droppedProbability = counter(meterRegistry, "dropped", "probability");
+    this.droppedUserCap = counter(meterRegistry, "dropped", "user-cap");
+  }
+
+  /** {@code budgetKey} is the username, or the client address if {@code anonymous}. */
+  public boolean shouldSample(String method, String path, String budgetKey, boolean anonymous) {
+    if ((include.length > 0 && !matchesAny(include, path)) || matchesAny(exclude, path)) {
+      droppedPath.increment();
+      return false;
+    }
+    if (isAlwaysSampledMethod(method) || matchesAny(alwaysSample, path)) {
+      alwaysSampled.increment();
+      return true;
+    }
+    if (probability < 1.0 && ThreadLocalRandom.current().nextDouble() >= probability) {
+      droppedProbability.increment();
+      return false;
+    }
+    Cache<String, UserBudget> budgets = anonymous ? anonymousBudgets : userBudgets;
+    if (maxPerUserPerMinute > 0
+        && !budgets.get(budgetKey, ignored -> new UserBudget()).tryTake(maxPerUserPerMinute)) {
+      droppedUserCap.increment();
+      return false;
+    }
+    sampled.increment();
+    return true;
+  }
+
+  private boolean isAlwaysSampledMethod(String method) {
+    for (String alwaysSampleMethod : alwaysSampleMethods) {
+      if (alwaysSampleMethod.equalsIgnoreCase(method)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean matchesAny(TracePathPattern[] patterns, String path) {
+    for (TracePathPattern pattern : patterns) {
+      if (pattern.matches(path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // idle keys fall out after the window, the size bounds the memory of a burst of new keys
+  private static Cache<String, UserBudget> budgets() {
+    return Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .expireAfterAccess(Duration.ofMinutes(2))
+        .build();
+  }
+
+  private static TracePathPattern[] compile(Collection<String> patterns) {
+    return patterns.stream().map(TracePathPattern::compile).toArray(TracePathPattern[]::new);
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String decision, String reason) {
+    return Counter.builder("stratospheric.tracing.events")
+        .description("Tracing decisions for requests, by outcome and the rule that decided it")
+        .tag("decision", decision)
+        .tag("reason", reason)
+        .register(meterRegistry);
+  }
+
+  /** Fixed one-minute window, the minute and the count in it packed into a single long. */
+  private static final class UserBudget {
+
+    private final AtomicLong minuteAndCount = new AtomicLong();
+
+    boolean tryTake(int max) {
+      long minute = System.currentTimeMillis() / 60_000;
+      while (true) {
+        long current = minuteAndCount.get();
+        long count = (current >>> 32) == minute ? current & 0xffffffffL : 0;
+        if (count >= max) {
+          return false;
+        }
+        if (minuteAndCount.compareAndSet(current, (minute << 32) | (count + 1))) {
+          return true;
+        }
+      }
+    }
+  }
+}
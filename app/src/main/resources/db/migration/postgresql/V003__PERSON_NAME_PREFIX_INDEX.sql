@@ -0,0 +1 @@
+create index IDX_PERSON_NAME_PREFIX on PERSON (lower(NAME) text_pattern_ops);
@@ -0,0 +1,9 @@
+create index IDX_TODO_OWNER_ID on TODO (OWNER_ID, ID);
+create index IDX_TODO_OWNER_DUE_DATE on TODO (OWNER_ID, DUE_DATE, ID);
+create index IDX_TODO_OWNER_PRIORITY on TODO (OWNER_ID, PRIORITY, ID);
+create index IDX_TODO_OWNER_STATUS_DUE_DATE on TODO (OWNER_ID, STATUS, DUE_DATE, ID);
+create index IDX_TODO_OWNER_STATUS_PRIORITY on TODO (OWNER_ID, STATUS, PRIORITY, ID);
+
+create index IDX_TODO_COLLABORATION_COLLABORATOR on TODO_COLLABORATION (COLLABORATOR_ID, TODO_ID);
+create index IDX_TODO_COLLABORATION_TODO on TODO_COLLABORATION (TODO_ID);
+create index IDX_TODO_COLLABORATION_REQUEST_TODO on TODO_COLLABORATION_REQUEST (TODO_ID);
@@ -0,0 +1,34 @@
+-- pooled sequences (allocationSize = 50) replacing the BIGSERIAL identity columns, so Hibernate
+-- can assign ids up front and batch inserts. setval to the current max id makes the first
+-- nextval hand out the block right above the existing rows. Column defaults move to the new
+-- sequences too, so native inserts draw from the same sequence.
+
+create sequence PERSON_SEQ increment by 50;
+select setval('person_seq', greatest((select max(ID) from PERSON), 1));
+alter table PERSON alter column ID set default nextval('person_seq');
+alter sequence PERSON_SEQ owned by PERSON.ID;
+drop sequence PERSON_ID_SEQ;
+
+create sequence TODO_SEQ increment by 50;
+select setval('todo_seq', greatest((select max(ID) from TODO), 1));
+alter table TODO alter column ID set default nextval('todo_seq');
+alter sequence TODO_SEQ owned by TODO.ID;
+drop sequence TODO_ID_SEQ;
+
+create sequence NOTE_SEQ increment by 50;
+select setval('note_seq', greatest((select max(ID) from NOTE), 1));
+alter table NOTE alter column ID set default nextval('note_seq');
+alter sequence NOTE_SEQ owned by NOTE.ID;
+drop sequence NOTE_ID_SEQ;
+
+create sequence REMINDER_SEQ increment by 50;
+select setval('reminder_seq', greatest((select max(ID) from REMINDER), 1));
+alter table REMINDER alter column ID set default nextval('reminder_seq');
+alter sequence REMINDER_SEQ owned by REMINDER.ID;
+drop sequence REMINDER_ID_SEQ;
+
+create sequence TODO_COLLABORATION_REQUEST_SEQ increment by 50;
+select setval('todo_collaboration_request_seq', greatest((select max(ID) from TODO_COLLABORATION_REQUEST), 1));
+alter table TODO_COLLABORATION_REQUEST alter column ID set default nextval('todo_collaboration_request_seq');
+alter sequence TODO_COLLABORATION_REQUEST_SEQ owned by TODO_COLLABORATION_REQUEST.ID;
+drop sequence TODO_COLLABORATION_REQUEST_ID_SEQ;
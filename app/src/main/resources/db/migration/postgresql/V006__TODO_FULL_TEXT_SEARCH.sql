@@ -0,0 +1,13 @@
+alter table TODO
+    add column SEARCH_VECTOR tsvector generated always as (
+        setweight(to_tsvector('english', coalesce(TITLE, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(DESCRIPTION, '')), 'B')) stored;
+
+create index IDX_TODO_SEARCH_VECTOR on TODO using gin (SEARCH_VECTOR);
+
+alter table NOTE
+    add column SEARCH_VECTOR tsvector generated always as (
+        to_tsvector('english', coalesce(CONTENT, ''))) stored;
+
+create index IDX_NOTE_SEARCH_VECTOR on NOTE using gin (SEARCH_VECTOR);
+create index IDX_NOTE_TODO on NOTE (TODO_ID);
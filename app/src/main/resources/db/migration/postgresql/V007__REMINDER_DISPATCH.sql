@@ -0,0 +1,8 @@
+alter table REMINDER add column DISPATCHED_AT TIMESTAMP;
+
+-- reminders that are already overdue predate the dispatcher, don't flood their owners
+update REMINDER set DISPATCHED_AT = now() where DUE_DATE < current_date;
+
+-- only pending reminders are indexed, so the scan cost follows the backlog and not the table size
+create index IDX_REMINDER_PENDING_DUE_DATE on REMINDER (DUE_DATE, ID) where DISPATCHED_AT is null;
+create index IDX_REMINDER_TODO on REMINDER (TODO_ID);
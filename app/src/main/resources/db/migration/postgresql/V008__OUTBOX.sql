@@ -0,0 +1,13 @@
+-- ids define the delivery order, so the sequence is not pooled
+create sequence OUTBOX_MESSAGE_SEQ;
+
+create table OUTBOX_MESSAGE
+(
+	ID BIGINT not null primary key default nextval('OUTBOX_MESSAGE_SEQ'),
+	DESTINATION VARCHAR(255) not null,
+	PAYLOAD_TYPE VARCHAR(255) not null,
+	PAYLOAD TEXT not null,
+	CREATED_AT TIMESTAMP not null
+);
+
+alter sequence OUTBOX_MESSAGE_SEQ owned by OUTBOX_MESSAGE.ID;
@@ -0,0 +1,7 @@
+create table PROCESSED_MESSAGE
+(
+	MESSAGE_ID VARCHAR(64) not null primary key,
+	PROCESSED_AT TIMESTAMP not null
+);
+
+create index IDX_PROCESSED_MESSAGE_PROCESSED_AT on PROCESSED_MESSAGE (PROCESSED_AT);
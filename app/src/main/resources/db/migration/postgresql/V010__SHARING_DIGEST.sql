@@ -0,0 +1,13 @@
+create sequence SHARING_DIGEST_ENTRY_SEQ increment by 50;
+
+create table SHARING_DIGEST_ENTRY
+(
+	ID BIGINT not null primary key default nextval('SHARING_DIGEST_ENTRY_SEQ'),
+	COLLABORATOR_EMAIL VARCHAR(255) not null,
+	PAYLOAD TEXT not null,
+	CREATED_AT TIMESTAMP not null
+);
+
+alter sequence SHARING_DIGEST_ENTRY_SEQ owned by SHARING_DIGEST_ENTRY.ID;
+
+create index IDX_SHARING_DIGEST_ENTRY_CREATED_AT on SHARING_DIGEST_ENTRY (CREATED_AT);
@@ -0,0 +1,2 @@
+-- JSON object of message headers, sent as SQS message attributes
+alter table OUTBOX_MESSAGE add column HEADERS TEXT;
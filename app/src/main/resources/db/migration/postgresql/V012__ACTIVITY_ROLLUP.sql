@@ -0,0 +1,10 @@
+-- one row per time bucket, every node merges its sketches into it
+create table ACTIVITY_ROLLUP
+(
+	BUCKET_START TIMESTAMP not null primary key,
+	EVENTS BIGINT not null,
+	DISTINCT_USERS BIGINT not null,
+	USERS_SKETCH BYTEA not null,
+	URIS_SKETCH BYTEA not null,
+	TOP_URIS TEXT not null
+);
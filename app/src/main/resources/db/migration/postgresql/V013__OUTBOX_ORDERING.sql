@@ -0,0 +1,20 @@
+-- the inserting transaction, the relay only picks rows of transactions older than every
+-- transaction still in flight, so a lower id that commits late cannot be overtaken
+alter table OUTBOX_MESSAGE add column TX_ID xid8 not null default pg_current_xact_id();
+
+-- SQS message group, messages of one group are delivered in order by the FIFO sharing queue
+alter table OUTBOX_MESSAGE add column MESSAGE_GROUP VARCHAR(128);
+
+-- outbox messages the relay could not read, kept for inspection instead of blocking the outbox
+create table OUTBOX_DEAD_LETTER
+(
+	ID BIGINT not null primary key,
+	DESTINATION VARCHAR(255) not null,
+	MESSAGE_GROUP VARCHAR(128),
+	PAYLOAD_TYPE VARCHAR(255) not null,
+	PAYLOAD TEXT not null,
+	HEADERS TEXT,
+	CREATED_AT TIMESTAMP not null,
+	FAILED_AT TIMESTAMP not null,
+	ERROR TEXT not null
+);
@@ -0,0 +1,7 @@
+-- renewed by the node holding the entry, only entries without a recent heartbeat are orphaned
+alter table SHARING_DIGEST_ENTRY add column HEARTBEAT_AT TIMESTAMP;
+update SHARING_DIGEST_ENTRY set HEARTBEAT_AT = CREATED_AT;
+alter table SHARING_DIGEST_ENTRY alter column HEARTBEAT_AT set not null;
+
+drop index IDX_SHARING_DIGEST_ENTRY_CREATED_AT;
+create index IDX_SHARING_DIGEST_ENTRY_HEARTBEAT_AT on SHARING_DIGEST_ENTRY (HEARTBEAT_AT);
@@ -0,0 +1,12 @@
+-- sharing digest entries whose email still failed after custom.sharing-digest.max-attempts, kept
+-- for inspection instead of being sent again forever
+create table SHARING_DIGEST_DEAD_LETTER
+(
+	ID BIGINT not null primary key,
+	COLLABORATOR_EMAIL VARCHAR(255) not null,
+	PAYLOAD TEXT not null,
+	CREATED_AT TIMESTAMP not null,
+	FAILED_AT TIMESTAMP not null,
+	ATTEMPTS INT not null,
+	ERROR TEXT not null
+);
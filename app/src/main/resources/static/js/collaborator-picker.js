@@ -0,0 +1,51 @@
+let shareTodoId = null;
+let collaboratorQuery = '';
+let collaboratorPage = 0;
+let collaboratorSearchTimeout = null;
+
+function loadCollaborators(reset) {
+  if (reset) {
+    collaboratorPage = 0;
+    $('#collaborator-list').empty();
+  }
+
+  $.getJSON('/dashboard/collaborators', {q: collaboratorQuery, page: collaboratorPage}, function (result) {
+    result.collaborators.forEach(function (collaborator) {
+      $('<button type="button" class="list-group-item list-group-item-action"></button>')
+        .text(collaborator.name)
+        .data('collaborator-id', collaborator.id)
+        .appendTo('#collaborator-list');
+    });
+
+    $('#collaborator-empty').prop('hidden', $('#collaborator-list').children().length > 0);
+    $('#collaborator-more').prop('hidden', !result.hasMore);
+  });
+}
+
+$(document).ready(function () {
+  $('#share-todo').on('show.bs.modal', function (e) {
+    shareTodoId = $(e.relatedTarget).data('todo-id');
+    collaboratorQuery = '';
+    $('#collaborator-search').val('');
+    loadCollaborators(true);
+  });
+
+  $('#collaborator-search').on('input', function () {
+    clearTimeout(collaboratorSearchTimeout);
+    collaboratorSearchTimeout = setTimeout(() => {
+      collaboratorQuery = $(this).val();
+      loadCollaborators(true);
+    }, 250);
+  });
+
+  $('#collaborator-more').on('click', function () {
+    collaboratorPage++;
+    loadCollaborators(false);
+  });
+
+  $('#collaborator-list').on('click', 'button', function () {
+    $('#share-todo-form')
+      .attr('action', '/todo/' + shareTodoId + '/collaborations/' + $(this).data('collaborator-id'))
+      .submit();
+  });
+});
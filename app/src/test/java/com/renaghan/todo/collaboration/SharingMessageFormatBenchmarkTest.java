@@ -0,0 +1,113 @@
+package com.renaghan.todo.collaboration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renaghan.todo.person.Person;
+import com.renaghan.todo.todo.Priority;
+import com.renaghan.todo.todo.Todo;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JSON encoding and decoding of a {@link SharingMessageFormat#FULL} and a {@link
+ * SharingMessageFormat#COMPACT} notification, as the SQS message converter does it. Enriching a
+ * compact notification on receipt reads the database and is not part of this measurement.
+ */
+class SharingMessageFormatBenchmarkTest {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(SharingMessageFormatBenchmarkTest.class);
+
+  private static final int WARM_UP = 20_000;
+  private static final int ITERATIONS = 50_000;
+  // the fastest of several rounds, the others include JIT and GC pauses
+  private static final int ROUNDS = 5;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void compactNotificationsAreSmallerAndCheaperToConvert() throws JsonProcessingException {
+    TodoCollaborationRequest collaboration = collaborationRequest();
+    Measurement full = measure(new TodoCollaborationNotification(collaboration));
+    Measurement compact = measure(TodoCollaborationNotification.compact(collaboration));
+
+    report("full", full);
+    report("compact", compact);
+
+    assertThat(compact.bytes).isLessThan(full.bytes);
+    assertThat(compact.encodeNanos + compact.decodeNanos)
+        .isLessThan(full.encodeNanos + full.decodeNanos);
+  }
+
+  private Measurement measure(TodoCollaborationNotification notification)
+      throws JsonProcessingException {
+    String json = objectMapper.writeValueAsString(notification);
+    for (int i = 0; i < WARM_UP; i++) {
+      objectMapper.readValue(
+          objectMapper.writeValueAsString(notification), TodoCollaborationNotification.class);
+    }
+
+    long encodeNanos = Long.MAX_VALUE;
+    long decodeNanos = Long.MAX_VALUE;
+    for (int round = 0; round < ROUNDS; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < ITERATIONS; i++) {
+        objectMapper.writeValueAsString(notification);
+      }
+      encodeNanos = Math.min(encodeNanos, (System.nanoTime() - start) / ITERATIONS);
+
+      start = System.nanoTime();
+      for (int i = 0; i < ITERATIONS; i++) {
+        objectMapper.readValue(json, TodoCollaborationNotification.class);
+      }
+      decodeNanos = Math.min(decodeNanos, (System.nanoTime() - start) / ITERATIONS);
+    }
+    return new Measurement(json.getBytes(StandardCharsets.UTF_8).length, encodeNanos, decodeNanos);
+  }
+
+  private static TodoCollaborationRequest collaborationRequest() {
+    Person collaborator = new Person();
+    collaborator.setId(42L);
+    collaborator.setName("Collaborating Duke");
+    collaborator.setEmail("collaborator@stratospheric.dev");
+
+    Todo todo = new Todo();
+    todo.setId(4711L);
+    todo.setTitle("Review the sharing queue");
+    // the longest description a todo may have
+    todo.setDescription("x".repeat(100));
+    todo.setPriority(Priority.HIGH);
+
+    TodoCollaborationRequest collaboration = new TodoCollaborationRequest();
+    collaboration.setCollaborator(collaborator);
+    collaboration.setTodo(todo);
+    collaboration.setToken("2b8e4c1a-6f0d-4f4b-9a57-0d1c6b3e9f21");
+    return collaboration;
+  }
+
+  private static void report(String format, Measurement measurement) {
+    LOG.info(
+        "{}: {} bytes, encode {}ns, decode {}ns per notification",
+        format,
+        measurement.bytes,
+        measurement.encodeNanos,
+        measurement.decodeNanos);
+  }
+
+  private static class Measurement {
+
+    private final int bytes;
+    private final long encodeNanos;
+    private final long decodeNanos;
+
+    Measurement(int bytes, long encodeNanos, long decodeNanos) {
+      this.bytes = bytes;
+      this.encodeNanos = encodeNanos;
+      this.decodeNanos = decodeNanos;
+    }
+  }
+}
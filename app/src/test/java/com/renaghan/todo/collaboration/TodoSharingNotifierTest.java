@@ -0,0 +1,178 @@
+package com.renaghan.todo.collaboration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.renaghan.todo.mail.EmailDeliveryService;
+import com.renaghan.todo.messaging.MessageDeduplicator;
+import com.renaghan.todo.todo.Priority;
+import io.awspring.cloud.sqs.listener.SqsMessageListenerContainer;
+import io.awspring.cloud.sqs.listener.acknowledgement.AcknowledgementResultCallback;
+import io.awspring.cloud.sqs.operations.SqsTemplate;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.messaging.Message;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.testcontainers.containers.localstack.LocalStackContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+
+/**
+ * With auto-confirmation on, a sharing message is acknowledged once its email was sent, the
+ * confirmation follows on the scheduler. A listener limited to one message at a time therefore
+ * gets through the queue far faster than one auto-confirm delay per message.
+ */
+@Testcontainers
+class TodoSharingNotifierTest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TodoSharingNotifierTest.class);
+
+  private static final String QUEUE = "sharing-throughput-queue";
+  private static final int MESSAGES = 20;
+  private static final Duration AUTO_CONFIRM_DELAY = Duration.ofMillis(2500);
+
+  @Container
+  static LocalStackContainer localStack =
+      new LocalStackContainer(DockerImageName.parse("localstack/localstack:3.5"))
+          .withServices(LocalStackContainer.Service.SQS);
+
+  private final CountDownLatch acknowledged = new CountDownLatch(MESSAGES);
+  private final CountDownLatch confirmed = new CountDownLatch(MESSAGES);
+
+  private SqsAsyncClient sqsAsyncClient;
+  private ThreadPoolTaskScheduler taskScheduler;
+  private SqsMessageListenerContainer<TodoCollaborationNotification> container;
+
+  @BeforeEach
+  void startListener() {
+    sqsAsyncClient =
+        SqsAsyncClient.builder()
+            .endpointOverride(localStack.getEndpoint())
+            .region(Region.of(localStack.getRegion()))
+            .credentialsProvider(
+                StaticCredentialsProvider.create(
+                    AwsBasicCredentials.create(
+                        localStack.getAccessKey(), localStack.getSecretKey())))
+            .build();
+    sqsAsyncClient.createQueue(request -> request.queueName(QUEUE)).join();
+
+    taskScheduler = new ThreadPoolTaskScheduler();
+    taskScheduler.setPoolSize(2);
+    taskScheduler.initialize();
+
+    TodoSharingNotifier todoSharingNotifier = todoSharingNotifier();
+    container =
+        SqsMessageListenerContainer.<TodoCollaborationNotification>builder()
+            .sqsAsyncClient(sqsAsyncClient)
+            .queueNames(QUEUE)
+            .configure(
+                options ->
+                    options
+                        .maxConcurrentMessages(1)
+                        .maxMessagesPerPoll(1)
+                        .pollTimeout(Duration.ofSeconds(1)))
+            .asyncMessageListener(
+                message -> todoSharingNotifier.notifyCollaborator(message.getPayload(), null))
+            .acknowledgementResultCallback(
+                new AcknowledgementResultCallback<>() {
+                  @Override
+                  public void onSuccess(
+                      Collection<Message<TodoCollaborationNotification>> messages) {
+                    messages.forEach(message -> acknowledged.countDown());
+                  }
+                })
+            .build();
+    container.start();
+  }
+
+  @AfterEach
+  void stopListener() {
+    container.stop();
+    taskScheduler.shutdown();
+    sqsAsyncClient.close();
+  }
+
+  @Test
+  void autoConfirmationDoesNotHoldTheOnlyListenerSlot() throws InterruptedException {
+    SqsTemplate sqsTemplate =
+        SqsTemplate.builder().sqsAsyncClient(sqsAsyncClient).buildSyncTemplate();
+
+    long start = System.nanoTime();
+    for (int i = 0; i < MESSAGES; i++) {
+      sqsTemplate.send(QUEUE, notification(i));
+    }
+
+    Duration sleepingListener = AUTO_CONFIRM_DELAY.multipliedBy(MESSAGES);
+    assertThat(acknowledged.await(sleepingListener.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+    LOG.info(
+        "Acknowledged {} messages in {}ms, a sleeping listener needs {}ms",
+        MESSAGES,
+        elapsed.toMillis(),
+        sleepingListener.toMillis());
+
+    assertThat(elapsed).isLessThan(sleepingListener.dividedBy(5));
+    assertThat(confirmed.await(30, TimeUnit.SECONDS)).isTrue();
+  }
+
+  private TodoSharingNotifier todoSharingNotifier() {
+    EmailDeliveryService emailDeliveryService = mock(EmailDeliveryService.class);
+    when(emailDeliveryService.send(any(SimpleMailMessage.class)))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    TodoCollaborationService todoCollaborationService = mock(TodoCollaborationService.class);
+    doAnswer(
+            invocation -> {
+              confirmed.countDown();
+              return true;
+            })
+        .when(todoCollaborationService)
+        .confirmCollaboration(anyString(), anyLong(), anyLong(), anyString());
+
+    return new TodoSharingNotifier(
+        emailDeliveryService,
+        todoCollaborationService,
+        mock(MessageDeduplicator.class),
+        new DefaultListableBeanFactory().getBeanProvider(SharingDigest.class),
+        true,
+        "noreply@stratospheric.dev",
+        "http://localhost:8080",
+        event -> {},
+        taskScheduler,
+        AUTO_CONFIRM_DELAY);
+  }
+
+  private static TodoCollaborationNotification notification(int i) {
+    TodoCollaborationNotification notification = new TodoCollaborationNotification();
+    notification.setNotificationId("notification-" + i);
+    notification.setCollaboratorEmail("collaborator-" + i + "@stratospheric.dev");
+    notification.setCollaboratorName("collaborator " + i);
+    notification.setCollaboratorId((long) i);
+    notification.setTodoTitle("todo " + i);
+    notification.setTodoDescription("shared in the throughput test");
+    notification.setTodoPriority(Priority.DEFAULT);
+    notification.setTodoId((long) i);
+    notification.setToken("token-" + i);
+    return notification;
+  }
+}
@@ -0,0 +1,161 @@
+package com.renaghan.todo.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.test.context.assertj.AssertableApplicationContext;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Two independent Postgres containers stand in for the primary and the replica. They are told
+ * apart by database name. A standalone server reports no replay lag, so the replica counts as
+ * caught up until it becomes unreachable.
+ */
+@Testcontainers
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReplicaDataSourceConfigTest {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+  @Container
+  static PostgreSQLContainer<?> primary =
+      new PostgreSQLContainer<>("postgres:16.4").withDatabaseName("primary");
+
+  @Container
+  static PostgreSQLContainer<?> replica =
+      new PostgreSQLContainer<>("postgres:16.4").withDatabaseName("replica");
+
+  private final ApplicationContextRunner contextRunner =
+      new ApplicationContextRunner()
+          .withConfiguration(
+              AutoConfigurations.of(
+                  DataSourceAutoConfiguration.class,
+                  DataSourceTransactionManagerAutoConfiguration.class,
+                  TransactionAutoConfiguration.class))
+          .withUserConfiguration(ReplicaDataSourceConfig.class)
+          .withBean(MeterRegistry.class, SimpleMeterRegistry::new);
+
+  @Test
+  @Order(1)
+  void readWriteTransactionsUseThePrimary() {
+    run(
+        context -> {
+          awaitReplicaUsable(context, true);
+
+          assertThat(currentDatabase(context, false)).isEqualTo("primary");
+        });
+  }
+
+  @Test
+  @Order(2)
+  void readOnlyTransactionsUseTheReplica() {
+    run(
+        context -> {
+          awaitReplicaUsable(context, true);
+
+          assertThat(currentDatabase(context, true)).isEqualTo("replica");
+        });
+  }
+
+  @Test
+  @Order(3)
+  void readFromPrimaryOverridesTheReplica() {
+    run(
+        context -> {
+          awaitReplicaUsable(context, true);
+
+          assertThat(
+                  LagAwareReplicaDataSource.readFromPrimary(() -> currentDatabase(context, true)))
+              .isEqualTo("primary");
+          assertThat(currentDatabase(context, true)).isEqualTo("replica");
+        });
+  }
+
+  @Test
+  @Order(4)
+  void closesThePoolsWithTheContext() {
+    List<HikariDataSource> pools = new ArrayList<>();
+
+    run(context -> pools.addAll(context.getBeansOfType(HikariDataSource.class).values()));
+
+    assertThat(pools).hasSize(2).allMatch(HikariDataSource::isClosed);
+  }
+
+  // stops the replica container, so it has to run last
+  @Test
+  @Order(5)
+  void fallsBackToThePrimaryWhenTheReplicaIsUnreachable() {
+    run(
+        context -> {
+          awaitReplicaUsable(context, true);
+
+          replica.stop();
+
+          awaitReplicaUsable(context, false);
+          assertThat(currentDatabase(context, true)).isEqualTo("primary");
+        });
+  }
+
+  private void run(ApplicationContextRunner.ContextConsumer<AssertableApplicationContext> test) {
+    contextRunner
+        .withPropertyValues(
+            "spring.datasource.url=" + primary.getJdbcUrl(),
+            "spring.datasource.username=" + primary.getUsername(),
+            "spring.datasource.password=" + primary.getPassword(),
+            "custom.datasource.replica.enabled=true",
+            "custom.datasource.replica.url=" + replica.getJdbcUrl(),
+            "custom.datasource.replica.username=" + replica.getUsername(),
+            "custom.datasource.replica.password=" + replica.getPassword(),
+            "custom.datasource.replica.lag-check-interval=100ms",
+            "custom.datasource.replica.hikari.connection-timeout=500ms")
+        .run(test);
+  }
+
+  private static String currentDatabase(AssertableApplicationContext context, boolean readOnly) {
+    TransactionTemplate transaction =
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    transaction.setReadOnly(readOnly);
+
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+    return transaction.execute(
+        status -> jdbcTemplate.queryForObject("select current_database()", String.class));
+  }
+
+  private static void awaitReplicaUsable(AssertableApplicationContext context, boolean usable)
+      throws InterruptedException {
+    MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+    await(
+        () ->
+            meterRegistry.get("stratospheric.datasource.replica.usable").gauge().value()
+                == (usable ? 1 : 0));
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TIMEOUT.toNanos();
+    while (!condition.getAsBoolean()) {
+      assertThat(System.nanoTime()).as("condition met in time").isLessThan(deadline);
+      Thread.sleep(50);
+    }
+  }
+}
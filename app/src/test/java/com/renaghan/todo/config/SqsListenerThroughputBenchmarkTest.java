@@ -0,0 +1,222 @@
+package com.renaghan.todo.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.awspring.cloud.sqs.config.SqsMessageListenerContainerFactory;
+import io.awspring.cloud.sqs.listener.AsyncMessageListener;
+import io.awspring.cloud.sqs.listener.ListenerMode;
+import io.awspring.cloud.sqs.listener.MessageListenerContainer;
+import io.awspring.cloud.sqs.listener.SqsMessageListenerContainer;
+import io.awspring.cloud.sqs.operations.SqsTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.testcontainers.containers.localstack.LocalStackContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.QueueAttributeName;
+
+/**
+ * Messages per second from a filled queue until every message was processed and deleted, for the
+ * container Spring Cloud AWS builds by default and for the single and batch listeners on the
+ * container of {@link SqsListenerConfig}. Each message stands for an email send of {@link #WORK}.
+ */
+@Testcontainers
+class SqsListenerThroughputBenchmarkTest {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(SqsListenerThroughputBenchmarkTest.class);
+
+  private static final int MESSAGES = 500;
+  private static final Duration WORK = Duration.ofMillis(20);
+
+  @Container
+  static LocalStackContainer localStack =
+      new LocalStackContainer(DockerImageName.parse("localstack/localstack:3.5"))
+          .withServices(LocalStackContainer.Service.SQS);
+
+  private final Executor sending =
+      CompletableFuture.delayedExecutor(WORK.toMillis(), TimeUnit.MILLISECONDS);
+
+  private SqsAsyncClient sqsAsyncClient;
+  private SqsTemplate sqsTemplate;
+  private ThreadPoolTaskScheduler taskScheduler;
+  private SqsMessageListenerContainerFactory<Object> configuredFactory;
+
+  @BeforeEach
+  void createClients() {
+    sqsAsyncClient =
+        SqsAsyncClient.builder()
+            .endpointOverride(localStack.getEndpoint())
+            .region(Region.of(localStack.getRegion()))
+            .credentialsProvider(
+                StaticCredentialsProvider.create(
+                    AwsBasicCredentials.create(
+                        localStack.getAccessKey(), localStack.getSecretKey())))
+            .build();
+    sqsTemplate = SqsTemplate.builder().sqsAsyncClient(sqsAsyncClient).buildSyncTemplate();
+
+    taskScheduler = new ThreadPoolTaskScheduler();
+    taskScheduler.initialize();
+    configuredFactory =
+        new SqsListenerConfig()
+            .defaultSqsListenerContainerFactory(
+                sqsAsyncClient,
+                new SqsListenerProperties(),
+                new SimpleMeterRegistry(),
+                taskScheduler);
+  }
+
+  @AfterEach
+  void closeClients() {
+    taskScheduler.shutdown();
+    sqsAsyncClient.close();
+  }
+
+  @Test
+  void reportsMessagesPerSecondPerContainer() {
+    double defaults = measure("default-throughput-queue", this::defaultContainer);
+    double single = measure("single-throughput-queue", this::singleListenerContainer);
+    double batch = measure("batch-throughput-queue", this::batchListenerContainer);
+
+    report("default container", defaults);
+    report("configured single listener", single);
+    report("configured batch listener", batch);
+
+    // all three keep ten messages in flight, so the numbers are reported rather than ranked
+    assertThat(List.of(defaults, single, batch)).allSatisfy(rate -> assertThat(rate).isPositive());
+  }
+
+  private MessageListenerContainer<?> defaultContainer(
+      String queue, Function<Message<?>, CompletableFuture<Void>> work) {
+    return SqsMessageListenerContainer.<String>builder()
+        .sqsAsyncClient(sqsAsyncClient)
+        .queueNames(queue)
+        .asyncMessageListener(work::apply)
+        .build();
+  }
+
+  private MessageListenerContainer<?> singleListenerContainer(
+      String queue, Function<Message<?>, CompletableFuture<Void>> work) {
+    SqsMessageListenerContainer<Object> container = configuredFactory.createContainer(queue);
+    container.setAsyncMessageListener(work::apply);
+    return container;
+  }
+
+  // like TodoSharingBatchListener, the messages of a poll are worked on concurrently
+  private MessageListenerContainer<?> batchListenerContainer(
+      String queue, Function<Message<?>, CompletableFuture<Void>> work) {
+    SqsMessageListenerContainer<Object> container = configuredFactory.createContainer(queue);
+    container.configure(options -> options.listenerMode(ListenerMode.BATCH));
+    container.setAsyncMessageListener(
+        new AsyncMessageListener<>() {
+          @Override
+          public CompletableFuture<Void> onMessage(Message<Object> message) {
+            return work.apply(message);
+          }
+
+          @Override
+          public CompletableFuture<Void> onMessage(Collection<Message<Object>> messages) {
+            return CompletableFuture.allOf(
+                messages.stream().map(work).toArray(CompletableFuture[]::new));
+          }
+        });
+    return container;
+  }
+
+  // messages per second, from starting the container on a filled queue until it is empty
+  private double measure(String queue, ContainerSetup containerSetup) {
+    sqsAsyncClient.createQueue(request -> request.queueName(queue)).join();
+    fill(queue);
+
+    CountDownLatch processed = new CountDownLatch(MESSAGES);
+    MessageListenerContainer<?> container =
+        containerSetup.create(
+            queue, message -> CompletableFuture.runAsync(processed::countDown, sending));
+
+    long start = System.nanoTime();
+    container.start();
+    try {
+      assertThat(processed.await(2, TimeUnit.MINUTES)).isTrue();
+      awaitDeleted(queue);
+      long elapsed = System.nanoTime() - start;
+      return MESSAGES / (elapsed / 1_000_000_000.0);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } finally {
+      container.stop();
+    }
+  }
+
+  private void fill(String queue) {
+    List<Message<String>> batch = new ArrayList<>();
+    for (int i = 0; i < MESSAGES; i++) {
+      batch.add(MessageBuilder.withPayload("message-" + i).build());
+      // SQS takes at most ten messages per send
+      if (batch.size() == 10) {
+        sqsTemplate.sendMany(queue, batch);
+        batch = new ArrayList<>();
+      }
+    }
+  }
+
+  // acknowledgements are flushed every second or every ten messages
+  private void awaitDeleted(String queue) throws InterruptedException {
+    String queueUrl =
+        sqsAsyncClient.getQueueUrl(request -> request.queueName(queue)).join().queueUrl();
+    while (true) {
+      Map<QueueAttributeName, String> attributes =
+          sqsAsyncClient
+              .getQueueAttributes(
+                  request ->
+                      request
+                          .queueUrl(queueUrl)
+                          .attributeNames(
+                              QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES,
+                              QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES_NOT_VISIBLE))
+              .join()
+              .attributes();
+      if (attributes.values().stream().allMatch("0"::equals)) {
+        return;
+      }
+      Thread.sleep(50);
+    }
+  }
+
+  private static void report(String container, double messagesPerSecond) {
+    LOG.info(
+        "{}: {} messages/s over {} messages of {}ms work",
+        container,
+        Math.round(messagesPerSecond),
+        MESSAGES,
+        WORK.toMillis());
+  }
+
+  private interface ContainerSetup {
+
+    MessageListenerContainer<?> create(
+        String queue, Function<Message<?>, CompletableFuture<Void>> work);
+  }
+}
@@ -0,0 +1,187 @@
+package com.renaghan.todo.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.awspring.cloud.ses.SimpleEmailServiceMailSender;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mail.MailSender;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.testcontainers.containers.localstack.LocalStackContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ses.SesClient;
+
+@Testcontainers
+class EmailDeliveryServiceTest {
+
+  private static final String FROM = "noreply@stratospheric.dev";
+
+  @Container
+  static LocalStackContainer localStack =
+      new LocalStackContainer(DockerImageName.parse("localstack/localstack:3.5"))
+          .withServices(LocalStackContainer.Service.SES);
+
+  private static SesClient sesClient;
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private ThreadPoolTaskScheduler taskScheduler;
+  private EmailDeliveryService emailDeliveryService;
+
+  @BeforeAll
+  static void verifySender() {
+    sesClient =
+        SesClient.builder()
+            .endpointOverride(localStack.getEndpoint())
+            .region(Region.of(localStack.getRegion()))
+            .credentialsProvider(
+                StaticCredentialsProvider.create(
+                    AwsBasicCredentials.create(
+                        localStack.getAccessKey(), localStack.getSecretKey())))
+            .build();
+    sesClient.verifyEmailIdentity(request -> request.emailAddress(FROM));
+  }
+
+  @BeforeEach
+  void startScheduler() {
+    taskScheduler = new ThreadPoolTaskScheduler();
+    taskScheduler.setPoolSize(2);
+    taskScheduler.initialize();
+  }
+
+  @AfterEach
+  void stop() throws InterruptedException {
+    if (emailDeliveryService != null) {
+      emailDeliveryService.destroy();
+    }
+    taskScheduler.shutdown();
+  }
+
+  @Test
+  void sendsNoFasterThanTheSesSendQuota() throws Exception {
+    // rate-per-second 0 reads the quota from SES, as in production
+    double maxSendRate = sesClient.getSendQuota().maxSendRate();
+    emailDeliveryService = emailDeliveryService(new SimpleEmailServiceMailSender(sesClient), 0);
+    int emails = (int) Math.ceil(maxSendRate) * 4;
+    int sentBefore = sesSentCount();
+
+    long start = System.nanoTime();
+    CompletableFuture.allOf(
+            IntStream.range(0, emails)
+                .mapToObj(i -> emailDeliveryService.send(message("quota-" + i)))
+                .toArray(CompletableFuture[]::new))
+        .get(1, TimeUnit.MINUTES);
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+    // a full bucket of ceil(rate) goes out at once, every further email waits for a token
+    double minimumSeconds = (emails - Math.ceil(maxSendRate)) / maxSendRate;
+    assertThat(elapsed.toMillis()).isGreaterThanOrEqualTo((long) (minimumSeconds * 1000) - 50);
+    assertThat(meterRegistry.get("stratospheric.email.sent").counter().count())
+        .isEqualTo(emails);
+    assertThat(sesSentCount() - sentBefore).isEqualTo(emails);
+  }
+
+  @Test
+  void retriesTransientFailures() throws Exception {
+    Set<String> failedOnce = ConcurrentHashMap.newKeySet();
+    MailSender ses = new SimpleEmailServiceMailSender(sesClient);
+    MailSender flaky =
+        new MailSender() {
+          @Override
+          public void send(SimpleMailMessage message) {
+            if (failedOnce.add(message.getSubject())) {
+              throw SdkClientException.create("connection reset");
+            }
+            ses.send(message);
+          }
+
+          @Override
+          public void send(SimpleMailMessage... messages) {
+            List.of(messages).forEach(this::send);
+          }
+        };
+    emailDeliveryService = emailDeliveryService(flaky, 50);
+    int sentBefore = sesSentCount();
+
+    CompletableFuture.allOf(
+            emailDeliveryService.send(message("retry-1")),
+            emailDeliveryService.send(message("retry-2")))
+        .get(30, TimeUnit.SECONDS);
+
+    assertThat(meterRegistry.get("stratospheric.email.retried").counter().count()).isEqualTo(2);
+    assertThat(meterRegistry.get("stratospheric.email.sent").counter().count()).isEqualTo(2);
+    assertThat(sesSentCount() - sentBefore).isEqualTo(2);
+  }
+
+  @Test
+  void failsSendsThatCannotBeQueued() throws Exception {
+    emailDeliveryService = emailDeliveryService(new SimpleEmailServiceMailSender(sesClient), 50);
+    emailDeliveryService.destroy();
+
+    CompletableFuture<Void> result = emailDeliveryService.send(message("after-shutdown"));
+
+    assertThat(result).failsWithin(Duration.ofSeconds(1));
+    assertThat(meterRegistry.get("stratospheric.email.failed").counter().count()).isEqualTo(1);
+  }
+
+  private EmailDeliveryService emailDeliveryService(MailSender mailSender, double ratePerSecond) {
+    DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    beanFactory.registerSingleton("sesClient", sesClient);
+    ObjectProvider<SesClient> sesClientProvider = beanFactory.getBeanProvider(SesClient.class);
+
+    return new EmailDeliveryService(
+        mailSender,
+        taskScheduler,
+        meterRegistry,
+        sesClientProvider,
+        ratePerSecond,
+        4,
+        100,
+        3,
+        Duration.ofMillis(100),
+        Duration.ofSeconds(1));
+  }
+
+  private static SimpleMailMessage message(String subject) {
+    SimpleMailMessage message = new SimpleMailMessage();
+    message.setFrom(FROM);
+    message.setTo("collaborator@stratospheric.dev");
+    message.setSubject(subject);
+    message.setText("A todo was shared with you");
+    return message;
+  }
+
+  // LocalStack keeps every sent email and lists them on its internal SES endpoint
+  private static int sesSentCount() throws Exception {
+    HttpResponse<String> response =
+        HttpClient.newHttpClient()
+            .send(
+                HttpRequest.newBuilder(URI.create(localStack.getEndpoint() + "/_aws/ses")).build(),
+                HttpResponse.BodyHandlers.ofString());
+    return new ObjectMapper().readTree(response.body()).path("messages").size();
+  }
+}
@@ -0,0 +1,180 @@
+package com.renaghan.todo.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.awspring.cloud.sqs.listener.SqsMessageListenerContainer;
+import io.awspring.cloud.sqs.operations.SqsTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.testcontainers.containers.localstack.LocalStackContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+
+/**
+ * End-to-end latency from {@link MessageSender#sendMany} until the consumer has the message, one
+ * message at a time, for SQS (LocalStack) and the in-process broker with and without journal.
+ */
+@Testcontainers
+class MessagingLatencyBenchmarkTest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MessagingLatencyBenchmarkTest.class);
+
+  private static final String QUEUE = "latency-benchmark-queue";
+  private static final int WARM_UP = 50;
+  private static final int MESSAGES = 500;
+
+  @Container
+  static LocalStackContainer localStack =
+      new LocalStackContainer(DockerImageName.parse("localstack/localstack:3.5"))
+          .withServices(LocalStackContainer.Service.SQS);
+
+  @TempDir Path journalDirectory;
+
+  private final Map<String, CompletableFuture<Long>> arrivals = new ConcurrentHashMap<>();
+  private ThreadPoolTaskScheduler taskScheduler;
+
+  @BeforeEach
+  void startScheduler() {
+    taskScheduler = new ThreadPoolTaskScheduler();
+    taskScheduler.initialize();
+  }
+
+  @AfterEach
+  void stopScheduler() {
+    taskScheduler.shutdown();
+  }
+
+  @Test
+  void inProcessDeliversFasterThanSqs() {
+    long[] sqs = measureSqs();
+    long[] inProcess = measureInProcess("");
+    long[] journaled = measureInProcess(journalDirectory.resolve("benchmark.journal").toString());
+
+    report("sqs", sqs);
+    report("in-process", inProcess);
+    report("in-process with journal", journaled);
+
+    assertThat(percentile(inProcess, 0.5)).isLessThan(percentile(sqs, 0.5));
+    assertThat(percentile(inProcess, 0.99)).isLessThan(percentile(sqs, 0.99));
+  }
+
+  private long[] measureSqs() {
+    SqsAsyncClient sqsAsyncClient =
+        SqsAsyncClient.builder()
+            .endpointOverride(localStack.getEndpoint())
+            .region(Region.of(localStack.getRegion()))
+            .credentialsProvider(
+                StaticCredentialsProvider.create(
+                    AwsBasicCredentials.create(
+                        localStack.getAccessKey(), localStack.getSecretKey())))
+            .build();
+    sqsAsyncClient.createQueue(request -> request.queueName(QUEUE)).join();
+
+    SqsMessageListenerContainer<String> container =
+        SqsMessageListenerContainer.<String>builder()
+            .sqsAsyncClient(sqsAsyncClient)
+            .queueNames(QUEUE)
+            .messageListener(message -> arrived(message.getPayload()))
+            .build();
+    container.start();
+    try {
+      SqsTemplate sqsTemplate =
+          SqsTemplate.builder().sqsAsyncClient(sqsAsyncClient).buildSyncTemplate();
+      return measure(new SqsMessageSender(sqsTemplate));
+    } finally {
+      container.stop();
+      sqsAsyncClient.close();
+    }
+  }
+
+  private long[] measureInProcess(String journal) {
+    InProcessMessageBroker broker =
+        new InProcessMessageBroker(
+            List.of(
+                InProcessSubscription.of(
+                    QUEUE,
+                    String.class,
+                    message -> {
+                      arrived(message.getPayload());
+                      return CompletableFuture.completedFuture(null);
+                    })),
+            taskScheduler,
+            new ObjectMapper(),
+            new SimpleMeterRegistry(),
+            1024,
+            2,
+            10,
+            5,
+            Duration.ofSeconds(30),
+            journal);
+    broker.start();
+    try {
+      return measure(broker);
+    } finally {
+      broker.stop();
+    }
+  }
+
+  // sorted nanoseconds, the next message is only sent once the previous one arrived
+  private long[] measure(MessageSender messageSender) {
+    long[] latencies = new long[MESSAGES];
+    for (int i = -WARM_UP; i < MESSAGES; i++) {
+      String payload = "ping-" + i;
+      CompletableFuture<Long> arrival = new CompletableFuture<>();
+      arrivals.put(payload, arrival);
+
+      long sentAt = System.nanoTime();
+      messageSender.sendMany(QUEUE, List.of(MessageBuilder.withPayload(payload).build()));
+      long arrivedAt = arrival.orTimeout(30, TimeUnit.SECONDS).join();
+
+      if (i >= 0) {
+        latencies[i] = arrivedAt - sentAt;
+      }
+    }
+    Arrays.sort(latencies);
+    return latencies;
+  }
+
+  private void arrived(String payload) {
+    long arrivedAt = System.nanoTime();
+    CompletableFuture<Long> arrival = arrivals.remove(payload);
+    if (arrival != null) {
+      arrival.complete(arrivedAt);
+    }
+  }
+
+  private static long percentile(long[] sorted, double percentile) {
+    return sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+  }
+
+  private static void report(String backend, long[] sorted) {
+    LOG.info(
+        "{}: p50 {}µs, p99 {}µs, max {}µs over {} messages",
+        backend,
+        TimeUnit.NANOSECONDS.toMicros(percentile(sorted, 0.5)),
+        TimeUnit.NANOSECONDS.toMicros(percentile(sorted, 0.99)),
+        TimeUnit.NANOSECONDS.toMicros(sorted[sorted.length - 1]),
+        sorted.length);
+  }
+}
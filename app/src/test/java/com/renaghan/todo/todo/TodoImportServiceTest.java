@@ -0,0 +1,117 @@
+package com.renaghan.todo.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.renaghan.todo.person.PersonIdentityService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@Testcontainers
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.generate_statistics=true",
+      "custom.todo-import.chunk-size=60"
+    })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TodoImportService.class, PersonIdentityService.class})
+// every chunk has to commit on its own, as in production
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TodoImportServiceTest {
+
+  private static final int TODOS = 120;
+
+  @Container @ServiceConnection
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.4");
+
+  @Autowired private TodoImportService todoImportService;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  @Test
+  void importsTodosWithRemindersAndNotesInBatches() {
+    statistics().clear();
+
+    TodoImportResult result =
+        todoImportService.importTodos(todoImports(TODOS), "importer@stratospheric.dev", "importer");
+
+    assertThat(result.getImportedTodos()).isEqualTo(TODOS);
+    assertThat(result.getTransactions()).isEqualTo(2);
+    assertThat(count("todo")).isEqualTo(TODOS);
+    assertThat(count("reminder")).isEqualTo(2 * TODOS);
+    assertThat(count("note")).isEqualTo(2 * TODOS);
+
+    // 600 rows: per chunk of 60 todos 2 + 3 + 3 insert batches of at most 50, one sequence call
+    // per 50 ids and the owner's lookup and insert; one statement per row would be over 600
+    assertThat(statistics().getEntityInsertCount()).isEqualTo(5 * TODOS);
+    assertThat(statistics().getPrepareStatementCount()).isLessThanOrEqualTo(40);
+  }
+
+  @Test
+  void pastDueDateRejectsTheImportBeforeAnyChunk() {
+    List<TodoImport> todoImports = todoImports(3);
+    todoImports.get(2).setDueDate(LocalDate.now().minusDays(1));
+
+    try (var validatorFactory = Validation.buildDefaultValidatorFactory()) {
+      Validator validator = validatorFactory.getValidator();
+      assertThat(validator.validate(todoImports.get(0))).isEmpty();
+      assertThat(validator.validate(todoImports.get(2)))
+          .singleElement()
+          .satisfies(violation -> assertThat(violation.getPropertyPath()).hasToString("dueDate"));
+    }
+  }
+
+  private static List<TodoImport> todoImports(int count) {
+    List<TodoImport> todoImports = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      TodoImport todoImport = new TodoImport();
+      todoImport.setTitle("imported " + i);
+      todoImport.setPriority(Priority.values()[i % Priority.values().length]);
+      todoImport.setDueDate(LocalDate.now().plusDays(7));
+      todoImport.setReminders(List.of(LocalDate.now().plusDays(1), LocalDate.now().plusDays(6)));
+      todoImport.setNotes(List.of("first note " + i, "second note " + i));
+      todoImports.add(todoImport);
+    }
+    return todoImports;
+  }
+
+  private long count(String table) {
+    return jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+  }
+
+  private Statistics statistics() {
+    return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @TestConfiguration
+  static class MeterRegistryConfig {
+
+    @Bean
+    MeterRegistry meterRegistry() {
+      return new SimpleMeterRegistry();
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package com.renaghan.todo.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.renaghan.todo.dashboard.DashboardFilter;
+import com.renaghan.todo.dashboard.TodoDto;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@Testcontainers
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TodoRepositoryStatementCountTest {
+
+  @Container @ServiceConnection
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.4");
+
+  @Autowired private TodoRepository todoRepository;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private long ownerId;
+  private long collaboratorId;
+
+  @BeforeEach
+  void createPersons() {
+    ownerId = insertPerson("owner@stratospheric.dev", "owner");
+    collaboratorId = insertPerson("collaborator@stratospheric.dev", "collaborator");
+  }
+
+  @Test
+  void dashboardPageIsOneStatementRegardlessOfTodoCount() {
+    insertTodos(3);
+    List<TodoDto> small = loadDashboardPage();
+    long smallStatements = statistics().getPrepareStatementCount();
+
+    insertTodos(40);
+    List<TodoDto> large = loadDashboardPage();
+    long largeStatements = statistics().getPrepareStatementCount();
+
+    assertThat(small).hasSize(6);
+    assertThat(large).hasSize(50);
+    assertThat(large).anyMatch(TodoDto::isCollaboration);
+    assertThat(large)
+        .filteredOn(todo -> !todo.isCollaboration())
+        .allMatch(todo -> todo.getAmountOfCollaborators() == 1)
+        .allMatch(todo -> todo.getAmountOfCollaborationRequests() == 1);
+
+    assertThat(smallStatements).isEqualTo(1);
+    assertThat(largeStatements).isEqualTo(smallStatements);
+  }
+
+  private List<TodoDto> loadDashboardPage() {
+    statistics().clear();
+    return todoRepository.findOwnedAndSharedTodosPage(ownerId, new DashboardFilter(), null, 50);
+  }
+
+  /** Each round adds an owned todo with a collaborator and a pending request, and a shared one. */
+  private void insertTodos(int count) {
+    for (int i = 0; i < count; i++) {
+      long owned = insertTodo(ownerId, "owned " + i);
+      jdbcTemplate.update(
+          "insert into todo_collaboration (todo_id, collaborator_id) values (?, ?)",
+          owned,
+          collaboratorId);
+      jdbcTemplate.update(
+          "insert into todo_collaboration_request (todo_id, collaborator_id, token)"
+              + " values (?, ?, ?)",
+          owned,
+          collaboratorId,
+          "token-" + owned);
+
+      long shared = insertTodo(collaboratorId, "shared " + i);
+      jdbcTemplate.update(
+          "insert into todo_collaboration (todo_id, collaborator_id) values (?, ?)",
+          shared,
+          ownerId);
+    }
+  }
+
+  private long insertPerson(String email, String name) {
+    return jdbcTemplate.queryForObject(
+        "insert into person (email, name) values (?, ?) returning id", Long.class, email, name);
+  }
+
+  private long insertTodo(long ownerId, String title) {
+    return jdbcTemplate.queryForObject(
+        "insert into todo (title, status, priority, due_date, owner_id)"
+            + " values (?, 'OPEN', 1, current_date, ?) returning id",
+        Long.class,
+        title,
+        ownerId);
+  }
+
+  private Statistics statistics() {
+    return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+}
@@ -0,0 +1,208 @@
+package com.renaghan.todo.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.localstack.LocalStackContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+@Testcontainers
+class BreadcrumbWriterTest {
+
+  @Container
+  static LocalStackContainer localStack =
+      new LocalStackContainer(DockerImageName.parse("localstack/localstack:3.5"))
+          .withServices(LocalStackContainer.Service.DYNAMODB);
+
+  private final Throttling throttling = new Throttling();
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private DynamoDbClient dynamoDbClient;
+  private DynamoDbEnhancedClient dynamoDbEnhancedClient;
+  private DynamoDbTable<Breadcrumb> table;
+
+  @BeforeEach
+  void createTable() {
+    dynamoDbClient =
+        DynamoDbClient.builder()
+            .endpointOverride(localStack.getEndpoint())
+            .region(Region.of(localStack.getRegion()))
+            .credentialsProvider(
+                StaticCredentialsProvider.create(
+                    AwsBasicCredentials.create(
+                        localStack.getAccessKey(), localStack.getSecretKey())))
+            .overrideConfiguration(
+                configuration -> configuration.addExecutionInterceptor(throttling))
+            .build();
+    dynamoDbEnhancedClient =
+        DynamoDbEnhancedClient.builder().dynamoDbClient(dynamoDbClient).build();
+
+    String tableName = "breadcrumb-" + UUID.randomUUID();
+    table = dynamoDbEnhancedClient.table(tableName, TableSchema.fromBean(Breadcrumb.class));
+    table.createTable();
+    dynamoDbClient.waiter().waitUntilTableExists(request -> request.tableName(tableName));
+  }
+
+  @AfterEach
+  void deleteTable() {
+    table.deleteTable();
+    dynamoDbClient.close();
+  }
+
+  @Test
+  void writesTheQueueInBatchesOf25() {
+    BreadcrumbWriter breadcrumbWriter = breadcrumbWriter(5);
+    trace(breadcrumbWriter, 60);
+
+    breadcrumbWriter.flush();
+
+    assertThat(throttling.batchWriteCalls).isEqualTo(3);
+    assertThat(storedBreadcrumbs()).isEqualTo(60);
+    assertThat(counter("stratospheric.breadcrumbs.written")).isEqualTo(60);
+  }
+
+  @Test
+  void retriesUnprocessedItemsWithTheNextFlush() {
+    BreadcrumbWriter breadcrumbWriter = breadcrumbWriter(5);
+    trace(breadcrumbWriter, 25);
+    throttling.throttledCalls = 1;
+
+    breadcrumbWriter.flush();
+
+    assertThat(storedBreadcrumbs()).isEqualTo(1);
+    assertThat(gauge("stratospheric.breadcrumbs.unprocessed")).isEqualTo(24);
+    assertThat(counter("stratospheric.breadcrumbs.retried")).isEqualTo(24);
+
+    breadcrumbWriter.flush();
+
+    assertThat(throttling.batchWriteCalls).isEqualTo(2);
+    assertThat(storedBreadcrumbs()).isEqualTo(25);
+    assertThat(gauge("stratospheric.breadcrumbs.unprocessed")).isZero();
+    assertThat(counter("stratospheric.breadcrumbs.written")).isEqualTo(25);
+  }
+
+  @Test
+  void dropsUnprocessedItemsAfterTheirLastAttempt() {
+    BreadcrumbWriter breadcrumbWriter = breadcrumbWriter(2);
+    trace(breadcrumbWriter, 3);
+    throttling.throttledCalls = Integer.MAX_VALUE;
+
+    breadcrumbWriter.flush();
+    breadcrumbWriter.flush();
+
+    assertThat(storedBreadcrumbs()).isEqualTo(2);
+    assertThat(gauge("stratospheric.breadcrumbs.unprocessed")).isZero();
+    assertThat(
+            meterRegistry
+                .get("stratospheric.breadcrumbs.dropped")
+                .tag("reason", "failed")
+                .counter()
+                .count())
+        .isEqualTo(1);
+  }
+
+  private BreadcrumbWriter breadcrumbWriter(int maxAttempts) {
+    return new BreadcrumbWriter(
+        dynamoDbEnhancedClient,
+        table,
+        meterRegistry,
+        Duration.ofDays(30),
+        1024,
+        OverflowPolicy.DROP_NEWEST,
+        maxAttempts);
+  }
+
+  private void trace(BreadcrumbWriter breadcrumbWriter, int requests) {
+    for (int i = 0; i < requests; i++) {
+      breadcrumbWriter.storeTracingEvent(new TracingEvent(this, "/dashboard", "duke"));
+    }
+  }
+
+  private long storedBreadcrumbs() {
+    return table.scan().items().stream().count();
+  }
+
+  private double counter(String name) {
+    return meterRegistry.get(name).counter().count();
+  }
+
+  private double gauge(String name) {
+    return meterRegistry.get(name).gauge().value();
+  }
+
+  // DynamoDB only processes the first item of a throttled batch, the rest comes back unprocessed
+  private static final class Throttling implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Map<String, List<WriteRequest>>> HELD_BACK =
+        new ExecutionAttribute<>("HeldBackWriteRequests");
+
+    private int batchWriteCalls;
+    private int throttledCalls;
+
+    @Override
+    public SdkRequest modifyRequest(
+        Context.ModifyRequest context, ExecutionAttributes executionAttributes) {
+      if (!(context.request() instanceof BatchWriteItemRequest request)) {
+        return context.request();
+      }
+      batchWriteCalls++;
+      if (throttledCalls == 0) {
+        return request;
+      }
+      throttledCalls--;
+
+      Map<String, List<WriteRequest>> processed = new HashMap<>();
+      Map<String, List<WriteRequest>> heldBack = new HashMap<>();
+      request
+          .requestItems()
+          .forEach(
+              (tableName, writes) -> {
+                processed.put(tableName, writes.subList(0, 1));
+                if (writes.size() > 1) {
+                  heldBack.put(tableName, writes.subList(1, writes.size()));
+                }
+              });
+      executionAttributes.putAttribute(HELD_BACK, heldBack);
+      return request.toBuilder().requestItems(processed).build();
+    }
+
+    @Override
+    public SdkResponse modifyResponse(
+        Context.ModifyResponse context, ExecutionAttributes executionAttributes) {
+      Map<String, List<WriteRequest>> heldBack = executionAttributes.getAttribute(HELD_BACK);
+      if (heldBack == null || heldBack.isEmpty()) {
+        return context.response();
+      }
+      return ((BatchWriteItemResponse) context.response())
+          .toBuilder()
+          .unprocessedItems(heldBack)
+          .build();
+    }
+  }
+}
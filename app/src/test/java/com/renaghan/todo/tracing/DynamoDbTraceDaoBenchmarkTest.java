@@ -0,0 +1,195 @@
+package com.renaghan.todo.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.localstack.LocalStackContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.CreateTableEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.EnhancedGlobalSecondaryIndex;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+
+/**
+ * Latency of {@link DynamoDbTraceDao#findUserTrace} on the user-timestamp index with several users
+ * in the table, and a walk through a whole trace by {@link BreadcrumbCursor}.
+ */
+@Testcontainers
+class DynamoDbTraceDaoBenchmarkTest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DynamoDbTraceDaoBenchmarkTest.class);
+
+  private static final int USERS = 5;
+  // two breadcrumbs per second, so pages also end between breadcrumbs of the same timestamp
+  private static final int BREADCRUMBS_PER_USER = 1000;
+  private static final int PAGE_SIZE = 100;
+  private static final int WARM_UP = 20;
+  private static final int QUERIES = 200;
+
+  @Container
+  static LocalStackContainer localStack =
+      new LocalStackContainer(DockerImageName.parse("localstack/localstack:3.5"))
+          .withServices(LocalStackContainer.Service.DYNAMODB);
+
+  private final Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+  private DynamoDbClient dynamoDbClient;
+  private DynamoDbEnhancedClient dynamoDbEnhancedClient;
+  private DynamoDbTable<Breadcrumb> table;
+  private DynamoDbTraceDao traceDao;
+
+  @BeforeEach
+  void seedTable() {
+    dynamoDbClient =
+        DynamoDbClient.builder()
+            .endpointOverride(localStack.getEndpoint())
+            .region(Region.of(localStack.getRegion()))
+            .credentialsProvider(
+                StaticCredentialsProvider.create(
+                    AwsBasicCredentials.create(
+                        localStack.getAccessKey(), localStack.getSecretKey())))
+            .build();
+    dynamoDbEnhancedClient =
+        DynamoDbEnhancedClient.builder().dynamoDbClient(dynamoDbClient).build();
+
+    String tableName = "breadcrumb-" + UUID.randomUUID();
+    table = dynamoDbEnhancedClient.table(tableName, TableSchema.fromBean(Breadcrumb.class));
+    table.createTable(
+        CreateTableEnhancedRequest.builder()
+            .globalSecondaryIndices(
+                EnhancedGlobalSecondaryIndex.builder()
+                    .indexName(Breadcrumb.USER_TIMESTAMP_INDEX)
+                    .projection(projection -> projection.projectionType(ProjectionType.ALL))
+                    .build())
+            .build());
+    dynamoDbClient.waiter().waitUntilTableExists(request -> request.tableName(tableName));
+
+    for (int user = 0; user < USERS; user++) {
+      seed(username(user));
+    }
+    traceDao = new DynamoDbTraceDao(table, PAGE_SIZE);
+  }
+
+  @AfterEach
+  void deleteTable() {
+    table.deleteTable();
+    dynamoDbClient.close();
+  }
+
+  @Test
+  void measuresTheTraceQueryOnTheIndex() {
+    long[] latencies = new long[QUERIES];
+    for (int i = -WARM_UP; i < QUERIES; i++) {
+      String username = username(Math.floorMod(i, USERS));
+      long start = System.nanoTime();
+      BreadcrumbPage page =
+          traceDao.findUserTrace(username, now.minus(1, ChronoUnit.HOURS), now, null);
+      long elapsed = System.nanoTime() - start;
+
+      assertThat(page.getBreadcrumbs()).hasSize(PAGE_SIZE);
+      if (i >= 0) {
+        latencies[i] = elapsed;
+      }
+    }
+    Arrays.sort(latencies);
+
+    LOG.info(
+        "findUserTrace: p50 {}µs, p99 {}µs, max {}µs over {} queries of {} breadcrumbs",
+        TimeUnit.NANOSECONDS.toMicros(percentile(latencies, 0.5)),
+        TimeUnit.NANOSECONDS.toMicros(percentile(latencies, 0.99)),
+        TimeUnit.NANOSECONDS.toMicros(latencies[latencies.length - 1]),
+        QUERIES,
+        PAGE_SIZE);
+  }
+
+  @Test
+  void pagesThroughAWholeTraceByCursor() {
+    String username = username(2);
+    List<Breadcrumb> trace = new ArrayList<>();
+    int pages = 0;
+    long start = System.nanoTime();
+
+    String cursor = null;
+    do {
+      BreadcrumbPage page = traceDao.findUserTraceForLastTwoWeeks(username, cursor);
+      pages++;
+      trace.addAll(page.getBreadcrumbs());
+      cursor = page.getNextCursor();
+      if (cursor != null) {
+        // the cursor survives a round-trip through the client unchanged
+        assertThat(BreadcrumbCursor.decode(cursor).encode()).isEqualTo(cursor);
+      }
+    } while (cursor != null);
+    long elapsed = System.nanoTime() - start;
+
+    LOG.info(
+        "Paged through {} breadcrumbs in {} pages in {}ms",
+        trace.size(),
+        pages,
+        TimeUnit.NANOSECONDS.toMillis(elapsed));
+
+    assertThat(trace).hasSize(BREADCRUMBS_PER_USER);
+    assertThat(trace).extracting(Breadcrumb::getUsername).containsOnly(username);
+    Set<String> ids = new HashSet<>();
+    trace.forEach(breadcrumb -> ids.add(breadcrumb.getId()));
+    assertThat(ids).hasSize(BREADCRUMBS_PER_USER);
+    assertThat(trace)
+        .extracting(Breadcrumb::getTimestamp)
+        .isSortedAccordingTo(Comparator.<String>reverseOrder());
+    // a full last page may be followed by one empty page
+    int fullPages = BREADCRUMBS_PER_USER / PAGE_SIZE;
+    assertThat(pages).isBetween(fullPages, fullPages + 1);
+  }
+
+  private void seed(String username) {
+    List<Breadcrumb> breadcrumbs = new ArrayList<>();
+    for (int i = 0; i < BREADCRUMBS_PER_USER; i++) {
+      Breadcrumb breadcrumb = new Breadcrumb();
+      breadcrumb.setId(UUID.randomUUID().toString());
+      breadcrumb.setUri("/todo/" + i);
+      breadcrumb.setUsername(username);
+      breadcrumb.setTimestamp(now.minusSeconds(i / 2).toString());
+      breadcrumbs.add(breadcrumb);
+    }
+
+    // BatchWriteItem takes at most 25 items
+    for (int from = 0; from < breadcrumbs.size(); from += 25) {
+      WriteBatch.Builder<Breadcrumb> batch =
+          WriteBatch.builder(Breadcrumb.class).mappedTableResource(table);
+      breadcrumbs
+          .subList(from, Math.min(from + 25, breadcrumbs.size()))
+          .forEach(batch::addPutItem);
+      dynamoDbEnhancedClient.batchWriteItem(request -> request.addWriteBatch(batch.build()));
+    }
+  }
+
+  private static String username(int user) {
+    return "user-" + user;
+  }
+
+  private static long percentile(long[] sorted, double percentile) {
+    return sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+  }
+}
@@ -1,6 +1,7 @@
 #!/bin/sh
 
-awslocal sqs create-queue --queue-name dev-todo-app-todo-sharing-queue
+awslocal sqs create-queue --queue-name dev-todo-app-todo-sharing-queue.fifo --attributes FifoQueue=true
+awslocal sqs create-queue --queue-name dev-todo-app-reminder-queue
 
 awslocal ses verify-email-identity --email-address noreply@stratospheric.dev
 awslocal ses verify-email-identity --email-address info@stratospheric.dev
@@ -10,6 +11,15 @@ awslocal ses verify-email-identity --email-address philip@stratospheric.dev
 
 awslocal dynamodb create-table \
     --table-name dev-todo-app-breadcrumb \
-    --attribute-definitions AttributeName=id,AttributeType=S \
+    --attribute-definitions \
+        AttributeName=id,AttributeType=S \
+        AttributeName=username,AttributeType=S \
+        AttributeName=timestamp,AttributeType=S \
     --key-schema AttributeName=id,KeyType=HASH \
     --provisioned-throughput ReadCapacityUnits=10,WriteCapacityUnits=10 \
+    --global-secondary-indexes \
+        "IndexName=username-timestamp-index,KeySchema=[{AttributeName=username,KeyType=HASH},{AttributeName=timestamp,KeyType=RANGE}],Projection={ProjectionType=ALL},ProvisionedThroughput={ReadCapacityUnits=10,WriteCapacityUnits=10}"
+
+awslocal dynamodb update-time-to-live \
+    --table-name dev-todo-app-breadcrumb \
+    --time-to-live-specification Enabled=true,AttributeName=expiresAt
@@ -293,15 +293,15 @@ class CloudWatchDashboard {
                                 List.of(
                                     createSqsMetric(
                                         "ApproximateAgeOfOldestMessage",
-                                        app.appEnv().prefix("todo-sharing-queue"),
+                                        app.appEnv().prefix("todo-sharing-queue.fifo"),
                                         "avg"),
                                     createSqsMetric(
                                         "ApproximateNumberOfMessagesVisible",
-                                        app.appEnv().prefix("todo-sharing-queue"),
+                                        app.appEnv().prefix("todo-sharing-queue.fifo"),
                                         "sum"),
                                     createSqsMetric(
                                         "NumberOfMessagesSent",
-                                        app.appEnv().prefix("todo-sharing-queue"),
+                                        app.appEnv().prefix("todo-sharing-queue.fifo"),
                                         "sum")))
                             .height(6)
                             .width(12)
@@ -315,15 +315,15 @@ class CloudWatchDashboard {
                                 List.of(
                                     createSqsMetric(
                                         "ApproximateAgeOfOldestMessage",
-                                        app.appEnv().prefix("todo-sharing-dead-letter-queue"),
+                                        app.appEnv().prefix("todo-sharing-dead-letter-queue.fifo"),
                                         "avg"),
                                     createSqsMetric(
                                         "ApproximateNumberOfMessagesVisible",
-                                        app.appEnv().prefix("todo-sharing-dead-letter-queue"),
+                                        app.appEnv().prefix("todo-sharing-dead-letter-queue.fifo"),
                                         "sum"),
                                     createSqsMetric(
                                         "NumberOfMessagesSent",
-                                        app.appEnv().prefix("todo-sharing-dead-letter-queue"),
+                                        app.appEnv().prefix("todo-sharing-dead-letter-queue.fifo"),
                                         "sum")))
                             .height(6)
                             .width(12)
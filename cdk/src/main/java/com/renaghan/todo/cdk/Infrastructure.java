@@ -10,6 +10,8 @@ import software.amazon.awscdk.services.certificatemanager.DnsValidatedCertificat
 import software.amazon.awscdk.services.dynamodb.Attribute;
 import software.amazon.awscdk.services.dynamodb.AttributeType;
 import software.amazon.awscdk.services.dynamodb.BillingMode;
+import software.amazon.awscdk.services.dynamodb.GlobalSecondaryIndexProps;
+import software.amazon.awscdk.services.dynamodb.ProjectionType;
 import software.amazon.awscdk.services.dynamodb.Table;
 import software.amazon.awscdk.services.dynamodb.TableEncryption;
 import software.amazon.awscdk.services.dynamodb.TableProps;
@@ -106,18 +108,34 @@ public class Infrastructure {
   }
 
   private void messaging() {
+    // FIFO, the outbox relay sends one message group per todo and each group arrives in order
     Queue todoSharingDlq =
         Queue.Builder.create(stack, "todoSharingDlq")
-            .queueName(app.appEnv().prefix("todo-sharing-dead-letter-queue"))
+            .queueName(app.appEnv().prefix("todo-sharing-dead-letter-queue.fifo"))
+            .fifo(true)
             .retentionPeriod(Duration.days(14))
             .build();
 
     Queue.Builder.create(stack, "todoSharingQueue")
-        .queueName(app.appEnv().prefix("todo-sharing-queue"))
+        .queueName(app.appEnv().prefix("todo-sharing-queue.fifo"))
+        .fifo(true)
         .visibilityTimeout(Duration.seconds(30))
         .retentionPeriod(Duration.days(14))
         .deadLetterQueue(DeadLetterQueue.builder().queue(todoSharingDlq).maxReceiveCount(3).build())
         .build();
+
+    Queue reminderDlq =
+        Queue.Builder.create(stack, "reminderDlq")
+            .queueName(app.appEnv().prefix("reminder-dead-letter-queue"))
+            .retentionPeriod(Duration.days(14))
+            .build();
+
+    Queue.Builder.create(stack, "reminderQueue")
+        .queueName(app.appEnv().prefix("reminder-queue"))
+        .visibilityTimeout(Duration.seconds(30))
+        .retentionPeriod(Duration.days(14))
+        .deadLetterQueue(DeadLetterQueue.builder().queue(reminderDlq).maxReceiveCount(3).build())
+        .build();
   }
 
   private void activeMQ() {
@@ -125,17 +143,31 @@ public class Infrastructure {
   }
 
   private void dynamoDB() {
-    new Table(
-        stack,
-        "BreadcrumbsDynamoDbTable",
-        TableProps.builder()
-            .partitionKey(Attribute.builder().type(AttributeType.STRING).name("id").build())
-            .tableName(app.appEnv().prefix("breadcrumb"))
-            .encryption(TableEncryption.AWS_MANAGED)
-            .billingMode(BillingMode.PROVISIONED)
+    Table breadcrumbs =
+        new Table(
+            stack,
+            "BreadcrumbsDynamoDbTable",
+            TableProps.builder()
+                .partitionKey(Attribute.builder().type(AttributeType.STRING).name("id").build())
+                .tableName(app.appEnv().prefix("breadcrumb"))
+                .encryption(TableEncryption.AWS_MANAGED)
+                .billingMode(BillingMode.PROVISIONED)
+                .readCapacity(10)
+                .writeCapacity(10)
+                // epoch seconds, DynamoDB deletes expired breadcrumbs on its own
+                .timeToLiveAttribute("expiresAt")
+                .removalPolicy(RemovalPolicy.DESTROY)
+                .build());
+
+    // per-user time range queries, the id partition key only spreads writes
+    breadcrumbs.addGlobalSecondaryIndex(
+        GlobalSecondaryIndexProps.builder()
+            .indexName("username-timestamp-index")
+            .partitionKey(Attribute.builder().type(AttributeType.STRING).name("username").build())
+            .sortKey(Attribute.builder().type(AttributeType.STRING).name("timestamp").build())
+            .projectionType(ProjectionType.ALL)
             .readCapacity(10)
             .writeCapacity(10)
-            .removalPolicy(RemovalPolicy.DESTROY)
             .build());
   }
 
@@ -96,7 +96,12 @@ public class ServiceApp {
                                     "arn:aws:sqs:%s:%s:%s",
                                     app.getContext("region"),
                                     app.getContext("accountId"),
-                                    app.appEnv().prefix("todo-sharing-queue"))))
+                                    app.appEnv().prefix("todo-sharing-queue.fifo")),
+                                String.format(
+                                    "arn:aws:sqs:%s:%s:%s",
+                                    app.getContext("region"),
+                                    app.getContext("accountId"),
+                                    app.appEnv().prefix("reminder-queue"))))
                         .actions(
                             Arrays.asList(
                                 "sqs:DeleteMessage",
@@ -143,6 +148,11 @@ public class ServiceApp {
                                     "arn:aws:dynamodb:%s:%s:table/%s",
                                     app.getContext("region"),
                                     app.getContext("accountId"),
+                                    app.appEnv().prefix("breadcrumb")),
+                                String.format(
+                                    "arn:aws:dynamodb:%s:%s:table/%s/index/*",
+                                    app.getContext("region"),
+                                    app.getContext("accountId"),
                                     app.appEnv().prefix("breadcrumb"))))
                         .actions(
                             List.of(